@@ -2,8 +2,10 @@ package com.harshqa.qadashboardai;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Durable ingestion workers poll the job table
 public class QaDashboardAiApplication {
 
     public static void main(String[] args) {
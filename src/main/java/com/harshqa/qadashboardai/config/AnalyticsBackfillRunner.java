@@ -0,0 +1,58 @@
+package com.harshqa.qadashboardai.config;
+
+import com.harshqa.qadashboardai.service.FailureBitmapService;
+import com.harshqa.qadashboardai.service.FailureCategoryService;
+import com.harshqa.qadashboardai.service.FailureClusterService;
+import com.harshqa.qadashboardai.service.FailureCountService;
+import com.harshqa.qadashboardai.service.FailureSketchService;
+import com.harshqa.qadashboardai.service.RollupService;
+import com.harshqa.qadashboardai.service.TestHistoryService;
+import com.harshqa.qadashboardai.service.TestStatsService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings the pre-aggregated analytics tables up to date with data that was ingested
+ * before they existed. Every step is idempotent, so it is safe to run on each startup.
+ */
+@Component
+@Order(2) // After TestDefinitionMigration
+public class AnalyticsBackfillRunner implements CommandLineRunner {
+
+    private final RollupService rollupService;
+    private final TestStatsService testStatsService;
+    private final FailureCategoryService failureCategoryService;
+    private final FailureClusterService failureClusterService;
+    private final FailureSketchService failureSketchService;
+    private final FailureCountService failureCountService;
+    private final TestHistoryService testHistoryService;
+    private final FailureBitmapService failureBitmapService;
+
+    public AnalyticsBackfillRunner(RollupService rollupService, TestStatsService testStatsService,
+                                   FailureCategoryService failureCategoryService, FailureClusterService failureClusterService,
+                                   FailureSketchService failureSketchService, FailureCountService failureCountService,
+                                   TestHistoryService testHistoryService, FailureBitmapService failureBitmapService) {
+        this.rollupService = rollupService;
+        this.testStatsService = testStatsService;
+        this.failureCategoryService = failureCategoryService;
+        this.failureClusterService = failureClusterService;
+        this.failureSketchService = failureSketchService;
+        this.failureCountService = failureCountService;
+        this.testHistoryService = testHistoryService;
+        this.failureBitmapService = failureBitmapService;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        rollupService.backfillMissing();
+        rollupService.backfillHistograms();
+        failureSketchService.backfillMissing(); // Needs the rollup days
+        failureCountService.backfillMissing();
+        testStatsService.backfillMissing();
+        failureCategoryService.backfillMissing();
+        failureClusterService.backfillMissing();
+        testHistoryService.backfillMissing();
+        failureBitmapService.backfillMissing();
+    }
+}
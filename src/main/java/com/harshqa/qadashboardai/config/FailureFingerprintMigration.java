@@ -0,0 +1,176 @@
+package com.harshqa.qadashboardai.config;
+
+import com.harshqa.qadashboardai.service.DashboardDataChangedEvent;
+import com.harshqa.qadashboardai.service.FailureFingerprintCache;
+import com.harshqa.qadashboardai.service.FailureFingerprinter;
+import com.harshqa.qadashboardai.service.FailureSketchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Background migration: re-fingerprints failures stored with an older (or no) fingerprint version
+ * and merges the ones that now share a fingerprint.
+ *
+ * Works in chunks, one transaction each:
+ * 1. Lock a chunk of outdated failures (SKIP LOCKED, so several instances can share the work)
+ * 2. Compute the new fingerprints and look up failures that already have them
+ * 3. Duplicate -> its test cases are moved to the surviving failure and it is deleted
+ *    Otherwise   -> the failure simply gets its new fingerprint
+ * 4. At the end, the failure sketches of the days that had duplicates are rebuilt in place, one day
+ *    (and transaction) at a time, so the other days and concurrent uploads are never affected
+ * Runs on its own thread after startup, so the app is usable while it catches up.
+ */
+@Component
+public class FailureFingerprintMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FailureFingerprinter fingerprinter;
+    private final FailureFingerprintCache failureCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FailureSketchService failureSketchService;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public FailureFingerprintMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                       FailureFingerprinter fingerprinter, FailureFingerprintCache failureCache,
+                                       ApplicationEventPublisher eventPublisher, FailureSketchService failureSketchService,
+                                       @Value("${qa.failures.fingerprint.migration-enabled:true}") boolean enabled,
+                                       @Value("${qa.failures.fingerprint.migration-chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fingerprinter = fingerprinter;
+        this.failureCache = failureCache;
+        this.eventPublisher = eventPublisher;
+        this.failureSketchService = failureSketchService;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+    }
+
+    private record ProjectDay(long projectId, LocalDate day) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        Thread.ofVirtual().name("failure-refingerprint").start(this::migrate);
+    }
+
+    private void migrate() {
+        int processed = 0;
+        int merged = 0;
+        int failedChunks = 0;
+        Set<ProjectDay> mergedDays = new HashSet<>();
+
+        while (true) {
+            int[] result;
+            try {
+                result = transactionTemplate.execute(status -> migrateChunk(mergedDays));
+            } catch (Exception e) {
+                // Usually a race with an upload that just inserted the same new fingerprint: the retry sees it and merges
+                System.err.println("Failure re-fingerprinting chunk failed, retrying: " + e.getMessage());
+                if (++failedChunks >= 5) {
+                    System.err.println("Failure re-fingerprinting stopped after repeated errors");
+                    break;
+                }
+                continue;
+            }
+            if (result == null || result[0] == 0) break;
+            processed += result[0];
+            merged += result[1];
+        }
+
+        if (processed > 0) {
+            // Cached hash -> id entries may point to merged (deleted) failures
+            failureCache.clear();
+            // Day sketches still count merged duplicates as distinct failures: rebuild those days
+            // (recomputeDay replaces one day in its own transaction, the day is never missing for readers)
+            for (ProjectDay day : mergedDays) {
+                failureSketchService.recomputeDay(day.projectId(), day.day());
+            }
+            eventPublisher.publishEvent(new DashboardDataChangedEvent(null));
+            System.out.println("Re-fingerprinted " + processed + " failures, merged " + merged + " duplicates");
+        }
+    }
+
+    // Returns {processed, merged}. Adds the days the merged duplicates failed on to mergedDays
+    private int[] migrateChunk(Set<ProjectDay> mergedDays) {
+        // 1. Lock a chunk of outdated failures
+        Map<Long, String> idToTrace = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, stack_trace FROM test_failures " +
+                "WHERE fingerprint_version IS NULL OR fingerprint_version < ? " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                rs -> {
+                    idToTrace.put(rs.getLong(1), rs.getString(2));
+                }, FailureFingerprinter.VERSION, chunkSize);
+        if (idToTrace.isEmpty()) return new int[]{0, 0};
+
+        // 2. New fingerprints + failures that already own them
+        Map<Long, String> idToHash = new LinkedHashMap<>();
+        idToTrace.forEach((id, trace) -> idToHash.put(id, fingerprinter.fingerprint(trace)));
+
+        Map<String, Long> owners = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement("SELECT id, failure_hash FROM test_failures WHERE failure_hash = ANY(?)");
+            ps.setArray(1, con.createArrayOf("text", idToHash.values().toArray()));
+            return ps;
+        }, rs -> {
+            owners.put(rs.getString(2), rs.getLong(1));
+        });
+
+        // 3. Decide per failure: keep (re-hash) or merge into the owner of its fingerprint
+        List<Object[]> rehash = new ArrayList<>();
+        List<Object[]> merges = new ArrayList<>(); // {duplicateId, survivorId}
+        idToHash.forEach((id, hash) -> {
+            Long owner = owners.get(hash);
+            if (owner == null || owner.equals(id)) {
+                owners.put(hash, id);
+                rehash.add(new Object[]{hash, FailureFingerprinter.VERSION, id});
+            } else {
+                merges.add(new Object[]{owner, id});
+            }
+        });
+
+        if (!merges.isEmpty()) {
+            List<Object[]> duplicateIds = merges.stream().map(m -> new Object[]{m[1]}).toList();
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement("SELECT DISTINCT tr.project_id, CAST(tr.execution_date AS date) FROM test_cases tc " +
+                        "JOIN test_runs tr ON tr.id = tc.run_id WHERE tc.failure_id = ANY(?)");
+                ps.setArray(1, con.createArrayOf("bigint", duplicateIds.stream().map(d -> d[0]).toArray()));
+                return ps;
+            }, rs -> {
+                mergedDays.add(new ProjectDay(rs.getLong(1), rs.getObject(2, LocalDate.class)));
+            });
+            jdbcTemplate.batchUpdate("UPDATE test_cases SET failure_id = ? WHERE failure_id = ?", merges);
+            // Daily counts of the duplicate are added to the survivor's
+            jdbcTemplate.batchUpdate("INSERT INTO failure_daily_counts (project_id, failure_id, day, occurrences) " +
+                    "SELECT project_id, ?, day, occurrences FROM failure_daily_counts WHERE failure_id = ? " +
+                    "ON CONFLICT (project_id, failure_id, day) DO UPDATE SET " +
+                    "occurrences = failure_daily_counts.occurrences + EXCLUDED.occurrences", merges);
+            jdbcTemplate.batchUpdate("DELETE FROM failure_daily_counts WHERE failure_id = ?", duplicateIds);
+            // Cluster data of the duplicate goes too (the survivor keeps its own; cluster ids are only labels)
+            jdbcTemplate.batchUpdate("DELETE FROM failure_lsh_buckets WHERE failure_id = ?", duplicateIds);
+            jdbcTemplate.batchUpdate("DELETE FROM failure_signatures WHERE failure_id = ?", duplicateIds);
+            jdbcTemplate.batchUpdate("DELETE FROM test_failures WHERE id = ?", duplicateIds);
+        }
+        if (!rehash.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE test_failures SET failure_hash = ?, fingerprint_version = ? WHERE id = ?", rehash);
+        }
+        return new int[]{idToTrace.size(), merges.size()};
+    }
+}
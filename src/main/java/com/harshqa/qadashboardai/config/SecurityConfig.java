@@ -43,14 +43,12 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll() // Allow Login/Register
-                        .requestMatchers("/h2-console/**").permitAll() // Allow DB Console
                         // Ensuring upload endpoint is accessible to authenticated users (both Humans and API Keys)
-                        .requestMatchers("/upload-report").authenticated()
+                        .requestMatchers("/upload-report", "/upload-report/**").authenticated()
                         // Allow WebSocket connections
                         .requestMatchers("/ws/**").permitAll()
                         .anyRequest().authenticated() // Protect everything else
                 )
-                .headers(headers -> headers.frameOptions(frame -> frame.disable())) // For H2 Console
                 .addFilterBefore(apiKeyAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
@@ -0,0 +1,100 @@
+package com.harshqa.qadashboardai.config;
+
+import com.harshqa.qadashboardai.entity.Project;
+import com.harshqa.qadashboardai.repository.ProjectRepository;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves test names out of test_cases into test_definitions (Hibernate "update" only adds columns,
+ * it never moves data or drops the old ones).
+ * 1. Create a definition for every (project, class, test) found in test_cases
+ * 2. Point each old test case at its definition
+ * 3. Drop the old class_name / test_name columns and make test_definition_id NOT NULL
+ * test_daily_stats rows keyed by name are dropped; AnalyticsBackfillRunner rebuilds them right after.
+ * Every step checks the current schema first, so this is a no-op once done.
+ */
+@Component
+@Order(1) // Before AnalyticsBackfillRunner
+public class TestDefinitionMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProjectRepository projectRepository;
+
+    public TestDefinitionMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   ProjectRepository projectRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.projectRepository = projectRepository;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (columnExists("test_cases", "class_name")) {
+            // One transaction per project keeps each step reasonably small
+            for (Project project : projectRepository.findAll()) {
+                Integer migrated = transactionTemplate.execute(status -> migrateProject(project.getId()));
+                if (migrated != null && migrated > 0) {
+                    System.out.println("Linked " + migrated + " test cases to test definitions for Project " + project.getName());
+                }
+            }
+
+            Integer unlinked = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM test_cases WHERE test_definition_id IS NULL", Integer.class);
+            if (unlinked != null && unlinked > 0) {
+                System.err.println("Warning: " + unlinked + " test cases could not be linked, keeping the old name columns");
+                return;
+            }
+            // Note: Postgres only reclaims the space of dropped columns when rows are rewritten (or VACUUM FULL)
+            jdbcTemplate.execute("ALTER TABLE test_cases DROP COLUMN class_name, DROP COLUMN test_name");
+            System.out.println("Dropped test_cases.class_name / test_name (now in test_definitions)");
+        }
+
+        if (columnExists("test_daily_stats", "class_name")) {
+            jdbcTemplate.execute("TRUNCATE test_daily_stats");
+            jdbcTemplate.execute("ALTER TABLE test_daily_stats DROP COLUMN class_name, DROP COLUMN test_name");
+        }
+
+        if (isNullable("test_cases", "test_definition_id")) {
+            jdbcTemplate.execute("ALTER TABLE test_cases ALTER COLUMN test_definition_id SET NOT NULL");
+        }
+    }
+
+    private int migrateProject(Long projectId) {
+        jdbcTemplate.update(
+                "INSERT INTO test_definitions (project_id, class_name, test_name) " +
+                "SELECT DISTINCT tr.project_id, COALESCE(tc.class_name, ''), COALESCE(tc.test_name, '') " +
+                "FROM test_cases tc JOIN test_runs tr ON tr.id = tc.run_id " +
+                "WHERE tr.project_id = ? AND tc.test_definition_id IS NULL " +
+                "ON CONFLICT (project_id, class_name, test_name) DO NOTHING",
+                projectId);
+
+        return jdbcTemplate.update(
+                "UPDATE test_cases tc SET test_definition_id = d.id " +
+                "FROM test_runs tr, test_definitions d " +
+                "WHERE tr.id = tc.run_id AND tr.project_id = ? AND tc.test_definition_id IS NULL " +
+                "AND d.project_id = tr.project_id " +
+                "AND d.class_name = COALESCE(tc.class_name, '') AND d.test_name = COALESCE(tc.test_name, '')",
+                projectId);
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private boolean isNullable(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ? AND is_nullable = 'YES'",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
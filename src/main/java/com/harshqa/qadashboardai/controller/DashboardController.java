@@ -1,6 +1,7 @@
 package com.harshqa.qadashboardai.controller;
 
 import com.harshqa.qadashboardai.dto.*;
+import com.harshqa.qadashboardai.service.DashboardCache;
 import com.harshqa.qadashboardai.service.DashboardService;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
@@ -16,30 +17,60 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardCache dashboardCache;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DashboardCache dashboardCache) {
         this.dashboardService = dashboardService;
+        this.dashboardCache = dashboardCache;
     }
 
+    // exact=true counts unique failures from test_cases instead of the sketches (for verification)
     @GetMapping("/trends")
     public TrendsResponse getTrends(@RequestParam(defaultValue = "7") int days,
-                                    @RequestParam Long projectId) {
-        return dashboardService.getTrendAnalysis(days, projectId);
+                                    @RequestParam Long projectId,
+                                    @RequestParam(defaultValue = "false") boolean exact) {
+        return dashboardCache.get(projectId, "trends", () -> dashboardService.getTrendAnalysis(days, projectId, exact), days, exact);
     }
 
     @GetMapping("/top-failures")
     public List<FailureStatDto> getTopFailures(
             @RequestParam(defaultValue = "5") int limit,
             @RequestParam(defaultValue = "30") int days,
+            @RequestParam Long projectId,
+            @RequestParam(defaultValue = "false") boolean clustered
+    ) {
+        return dashboardCache.get(projectId, "top-failures",
+                () -> dashboardService.getTopFailures(limit, days, projectId, clustered), limit, days, clustered);
+    }
+
+    // Near-duplicate failures grouped together (same root cause, slightly different traces)
+    @GetMapping("/failure-clusters")
+    public List<FailureClusterDto> getFailureClusters(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "30") int days,
             @RequestParam Long projectId
     ) {
-        return dashboardService.getTopFailures(limit, days, projectId);
+        return dashboardCache.get(projectId, "failure-clusters",
+                () -> dashboardService.getFailureClusters(limit, days, projectId), limit, days);
     }
 
     @GetMapping("/failure-patterns")
     public List<FailurePatternDto> getFailurePatterns(@RequestParam(defaultValue = "30") int days,
                                                       @RequestParam Long projectId) {
-        return dashboardService.getFailurePatterns(days, projectId);
+        return dashboardCache.get(projectId, "failure-patterns", () -> dashboardService.getFailurePatterns(days, projectId), days);
+    }
+
+    // Tests whose recent durations are significantly above their baseline
+    @GetMapping("/slow-regressions")
+    public List<SlowTestDto> getSlowRegressions(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "20") double minIncreasePercent,
+            @RequestParam(defaultValue = "3") double zThreshold,
+            @RequestParam Long projectId) {
+        return dashboardCache.get(projectId, "slow-regressions",
+                () -> dashboardService.getSlowRegressions(days, limit, minIncreasePercent, zThreshold, projectId),
+                days, limit, minIncreasePercent, zThreshold);
     }
 
     @GetMapping("/flaky-tests")
@@ -47,7 +78,8 @@ public class DashboardController {
             @RequestParam(defaultValue = "30") int days,
             @RequestParam(defaultValue = "0") int flakyThreshold,
             @RequestParam Long projectId) {
-        return dashboardService.getFlakyTests(days, flakyThreshold, projectId);
+        return dashboardCache.get(projectId, "flaky-tests",
+                () -> dashboardService.getFlakyTests(days, flakyThreshold, projectId), days, flakyThreshold);
     }
 
     // Endpoint to update Flaky Test Status
@@ -75,4 +107,10 @@ public class DashboardController {
 
         return dashboardService.updateFlakyStatus(className, testName, acknowledged, status, assignee);
     }
-}
\ No newline at end of file
+
+    // Hit / miss / eviction counters of the dashboard response cache
+    @GetMapping("/cache-stats")
+    public CacheStatsDto getCacheStats() {
+        return dashboardCache.getStats();
+    }
+}
@@ -0,0 +1,107 @@
+package com.harshqa.qadashboardai.controller;
+
+import com.harshqa.qadashboardai.repository.ProjectRepository;
+import com.harshqa.qadashboardai.service.ExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk history export for notebooks / BI tools.
+ * e.g. /api/export/test-cases?projectId=1&from=2025-01-01&to=2025-03-31&format=csv&gzip=true
+ * The period is inclusive. Only the request is validated (e.g. the project exists) before the response
+ * starts streaming; the export rows themselves are read while streaming.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final ProjectRepository projectRepository;
+
+    public ExportController(ExportService exportService, ProjectRepository projectRepository) {
+        this.exportService = exportService;
+        this.projectRepository = projectRepository;
+    }
+
+    @GetMapping("/runs")
+    public ResponseEntity<StreamingResponseBody> exportRuns(
+            @RequestParam Long projectId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        return export("runs", projectId, from, to, format, gzip, exportService::exportRuns);
+    }
+
+    @GetMapping("/test-cases")
+    public ResponseEntity<StreamingResponseBody> exportTestCases(
+            @RequestParam Long projectId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        return export("test-cases", projectId, from, to, format, gzip, exportService::exportTestCases);
+    }
+
+    private interface Exporter {
+        void export(Long projectId, LocalDateTime from, LocalDateTime to, ExportService.Format format, OutputStream out);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, Long projectId, LocalDate from, LocalDate to,
+                                                         String format, boolean gzip, Exporter exporter) {
+        // 1. Validate everything up front (once streaming starts the status can no longer change)
+        if (!projectRepository.existsById(projectId)) {
+            throw new RuntimeException("Project not found: " + projectId);
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (end.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' is before 'from'");
+        }
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format: " + format + " (ndjson, csv)");
+        }
+
+        // 2. Headers: file name, type, and the gzip wrapper if asked for
+        String extension = exportFormat == ExportService.Format.CSV ? ".csv" : ".ndjson";
+        MediaType type = exportFormat == ExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        String fileName = name + "-" + projectId + "-" + from + "-to-" + end + extension + (gzip ? ".gz" : "");
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime endExclusive = end.plusDays(1).atStartOfDay();
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024);
+                exporter.export(projectId, start, endExclusive, exportFormat, zipped);
+            } else {
+                exporter.export(projectId, start, endExclusive, exportFormat, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,109 @@
+package com.harshqa.qadashboardai.controller;
+
+import com.harshqa.qadashboardai.dto.IngestJobDto;
+import com.harshqa.qadashboardai.entity.IngestJobRecord;
+import com.harshqa.qadashboardai.model.IngestJob;
+import com.harshqa.qadashboardai.security.ProjectIdResolver;
+import com.harshqa.qadashboardai.service.DurableIngestService;
+import com.harshqa.qadashboardai.service.IngestionPipeline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/ingest")
+public class IngestController {
+
+    private final IngestionPipeline ingestionPipeline;
+    private final DurableIngestService durableIngestService;
+    private final long retryAfterSeconds;
+
+    public IngestController(IngestionPipeline ingestionPipeline, DurableIngestService durableIngestService,
+                            @Value("${qa.ingest.async.retry-after-seconds:30}") long retryAfterSeconds) {
+        this.ingestionPipeline = ingestionPipeline;
+        this.durableIngestService = durableIngestService;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    // Async upload: returns 202 + one job per file right away. Poll /api/ingest/jobs/{id} for the result.
+    // If the pipeline is full -> 429 with Retry-After, so CI clients can back off and retry.
+    @PostMapping("/reports")
+    public ResponseEntity<?> submitReports(@RequestParam("files") MultipartFile[] files,
+                                           @RequestParam(value = "projectId", required = false) Long projectId) {
+        Long finalProjectId = ProjectIdResolver.resolve(projectId);
+        try {
+            List<IngestJobDto> jobs = ingestionPipeline.submit(files, finalProjectId).stream()
+                    .map(this::toDto)
+                    .toList();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobs);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public IngestJobDto getJob(@PathVariable String id) {
+        return ingestionPipeline.getJob(id)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ingest job not found: " + id));
+    }
+
+    // Durable upload: the job is stored in the DB and processed by any node (survives restarts)
+    @PostMapping("/queue")
+    public ResponseEntity<List<IngestJobDto>> enqueueReports(@RequestParam("files") MultipartFile[] files,
+                                                             @RequestParam(value = "projectId", required = false) Long projectId) {
+        Long finalProjectId = ProjectIdResolver.resolve(projectId);
+        List<IngestJobDto> jobs = new ArrayList<>();
+        for (MultipartFile file : files) {
+            try {
+                jobs.add(toDto(durableIngestService.enqueue(file, finalProjectId)));
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to queue report " + file.getOriginalFilename() + ": " + e.getMessage());
+            }
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobs);
+    }
+
+    @GetMapping("/queue/{id}")
+    public IngestJobDto getQueuedJob(@PathVariable Long id) {
+        return durableIngestService.getJob(id)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ingest job not found: " + id));
+    }
+
+    private IngestJobDto toDto(IngestJobRecord job) {
+        return IngestJobDto.builder()
+                .jobId(job.getId().toString())
+                .fileName(job.getFileName())
+                .projectId(job.getProjectId())
+                .status(job.getStatus())
+                .runId(job.getRunId())
+                .error(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .finishedAt("COMPLETED".equals(job.getStatus()) || "FAILED".equals(job.getStatus()) ? job.getUpdatedAt() : null)
+                .build();
+    }
+
+    private IngestJobDto toDto(IngestJob job) {
+        return IngestJobDto.builder()
+                .jobId(job.getId())
+                .fileName(job.getFileName())
+                .projectId(job.getProjectId())
+                .status(job.getStatus())
+                .runId(job.getRunId())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
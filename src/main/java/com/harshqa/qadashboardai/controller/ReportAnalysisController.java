@@ -1,12 +1,13 @@
 package com.harshqa.qadashboardai.controller;
 
+import com.harshqa.qadashboardai.dto.UploadResultDto;
 import com.harshqa.qadashboardai.model.FailureDefinition;
 import com.harshqa.qadashboardai.model.TestReport;
+import com.harshqa.qadashboardai.security.ProjectIdResolver;
 import com.harshqa.qadashboardai.service.AiAnalysisService;
+import com.harshqa.qadashboardai.service.ReportIngestionService;
 import com.harshqa.qadashboardai.service.TestRunService;
 import com.harshqa.qadashboardai.service.XmlParserService;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -21,31 +22,22 @@ public class ReportAnalysisController {
     private final XmlParserService xmlParserService;
     private final AiAnalysisService aiAnalysisService;
     private final TestRunService testRunService;
+    private final ReportIngestionService reportIngestionService;
 
     // Dependency Injection: We ask Spring for the parser we just made
-    public ReportAnalysisController(XmlParserService xmlParserService, AiAnalysisService aiAnalysisService, TestRunService testRunService) {
+    public ReportAnalysisController(XmlParserService xmlParserService, AiAnalysisService aiAnalysisService, TestRunService testRunService,
+                                    ReportIngestionService reportIngestionService) {
         this.xmlParserService = xmlParserService;
         this.aiAnalysisService = aiAnalysisService;
         this.testRunService = testRunService;
+        this.reportIngestionService = reportIngestionService;
     }
 
     @PostMapping("/upload-report")
     public List<Long> uploadReport(@RequestParam("files") MultipartFile[] files,
                                    @RequestParam(value = "projectId", required = false) Long projectId) {
-        // --- Determine Project ID ---
-        Long finalProjectId = projectId;
+        Long finalProjectId = ProjectIdResolver.resolve(projectId);
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-
-        // If authenticated via API Key, the "credentials" field holds the Project ID (set in Filter)
-        if (auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_SYSTEM"))) {
-            finalProjectId = (Long) auth.getCredentials();
-        }
-
-        if (finalProjectId == null) {
-            throw new RuntimeException("Project ID is required (either via parameter or API Key)");
-        }
-        // ----------------------------
         List<Long> runIds = new ArrayList<>();
         try {
             for (MultipartFile file : files) {
@@ -67,6 +59,21 @@ public class ReportAnalysisController {
         }
     }
 
+    // Concurrent mode: files are parsed in parallel, saved one by one in upload order.
+    // Returns one result per file (same order as uploaded); a bad file does not abort the batch.
+    @PostMapping("/upload-report/parallel")
+    public List<UploadResultDto> uploadReportsConcurrently(@RequestParam("files") MultipartFile[] files,
+                                                           @RequestParam(value = "projectId", required = false) Long projectId) {
+        return reportIngestionService.ingestConcurrently(files, ProjectIdResolver.resolve(projectId));
+    }
+
+    // Shard mode: all files are shards of ONE build -> assembled into a single run (one transaction, one event)
+    @PostMapping("/upload-report/shards")
+    public Long uploadShards(@RequestParam("files") MultipartFile[] files,
+                             @RequestParam(value = "projectId", required = false) Long projectId) {
+        return reportIngestionService.assembleShards(files, ProjectIdResolver.resolve(projectId));
+    }
+
     @PostMapping("/test-ai-analysis")
     public String testAiAnalysisWithDummyReport() {
         // 1. Create a dummy tiny report
@@ -0,0 +1,62 @@
+package com.harshqa.qadashboardai.controller;
+
+import com.harshqa.qadashboardai.dto.CoFailureDto;
+import com.harshqa.qadashboardai.dto.FailingRunsDto;
+import com.harshqa.qadashboardai.dto.TestHistoryDto;
+import com.harshqa.qadashboardai.service.FailureBitmapService;
+import com.harshqa.qadashboardai.service.TestHistoryService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tests")
+public class TestHistoryController {
+
+    private final TestHistoryService testHistoryService;
+    private final FailureBitmapService failureBitmapService;
+
+    public TestHistoryController(TestHistoryService testHistoryService, FailureBitmapService failureBitmapService) {
+        this.testHistoryService = testHistoryService;
+        this.failureBitmapService = failureBitmapService;
+    }
+
+    // Status / duration timeline of one test (e.g. /api/tests/com.app.LoginTest/testLogin/history?projectId=1&days=90)
+    // Names are matched exactly; URL-encode special characters
+    @GetMapping("/{className}/{testName}/history")
+    public TestHistoryDto getHistory(
+            @PathVariable String className,
+            @PathVariable String testName,
+            @RequestParam Long projectId,
+            @RequestParam(required = false) Integer days // All history when omitted
+    ) {
+        return testHistoryService.getHistory(projectId, className, testName, days);
+    }
+
+    // Runs in which the test failed, newest first (e.g. /api/tests/com.app.LoginTest/testLogin/failing-runs?projectId=1)
+    @GetMapping("/{className}/{testName}/failing-runs")
+    public FailingRunsDto getFailingRuns(
+            @PathVariable String className,
+            @PathVariable String testName,
+            @RequestParam Long projectId,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return failureBitmapService.getFailingRuns(projectId, className, testName, limit);
+    }
+
+    // Tests that fail together with this one, by Jaccard similarity of their failing runs
+    @GetMapping("/{className}/{testName}/co-failures")
+    public List<CoFailureDto> getCoFailures(
+            @PathVariable String className,
+            @PathVariable String testName,
+            @RequestParam Long projectId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "2") int minShared // Ignore tests that failed together only once
+    ) {
+        return failureBitmapService.getCoFailures(projectId, className, testName, limit, minShared);
+    }
+}
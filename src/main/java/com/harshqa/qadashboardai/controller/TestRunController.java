@@ -1,15 +1,23 @@
 package com.harshqa.qadashboardai.controller;
 
+import com.harshqa.qadashboardai.dto.RunDiffDto;
+import com.harshqa.qadashboardai.dto.RunPageDto;
+import com.harshqa.qadashboardai.dto.RunSummaryDto;
 import com.harshqa.qadashboardai.entity.Project;
 import com.harshqa.qadashboardai.entity.TestRun;
 import com.harshqa.qadashboardai.model.TestReport;
 import com.harshqa.qadashboardai.repository.ProjectRepository;
 import com.harshqa.qadashboardai.repository.TestRunRepository;
 import com.harshqa.qadashboardai.service.AiAnalysisService;
+import com.harshqa.qadashboardai.service.RunDetailService;
+import com.harshqa.qadashboardai.service.RunDiffService;
 import com.harshqa.qadashboardai.service.TestRunService;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -23,23 +31,39 @@ class TestRunController {
     private final TestRunRepository testRunRepository;
     private final AiAnalysisService aiAnalysisService;
     private final TestRunService testRunService;
+    private final RunDetailService runDetailService;
+    private final RunDiffService runDiffService;
 
-    public TestRunController(ProjectRepository projectRepository, TestRunRepository testRunRepository, AiAnalysisService aiAnalysisService, TestRunService testRunService) {
+    public TestRunController(ProjectRepository projectRepository, TestRunRepository testRunRepository, AiAnalysisService aiAnalysisService, TestRunService testRunService, RunDetailService runDetailService, RunDiffService runDiffService) {
         this.projectRepository = projectRepository;
         this.testRunRepository = testRunRepository;
         this.aiAnalysisService = aiAnalysisService;
         this.testRunService = testRunService;
+        this.runDetailService = runDetailService;
+        this.runDiffService = runDiffService;
     }
 
-    // 1. Get All Runs (For the history table) (Supports filters for Dashboard & History Page)
+    // 1. Get Runs (For the history table) (Supports filters for Dashboard & History Page)
+    // Summaries only (no test cases), capped at qa.api.runs.max-page-size. Full details: GET /api/runs/{id}
     @GetMapping
-    public List<TestRun> getAllRuns(
+    public List<RunSummaryDto> getAllRuns(
             @RequestParam(required = false) Integer limit, // e.g. ?limit=5
             @RequestParam(required = false) Integer days,   // e.g. ?days=30
             @RequestParam Long projectId
     ) {
         // Delegate to Service (which handles Transaction & Project lookup)
-        return testRunService.getRuns(projectId, limit, days);
+        return testRunService.getRunSummaries(projectId, limit, days);
+    }
+
+    // 1b. Paged Runs (e.g. /api/runs/page?projectId=1&size=50, then &cursor=<nextCursor>)
+    @GetMapping("/page")
+    public RunPageDto getRunPage(
+            @RequestParam Long projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Integer days
+    ) {
+        return testRunService.getRunPage(projectId, cursor, size, days);
     }
 
     // 2. Get Single Run Details (For the deep dive)
@@ -48,6 +72,32 @@ class TestRunController {
         return testRunService.getRunById(id);
     }
 
+    // 2b. Paged Run Details (e.g. /api/runs/12/detail?status=FAILED&page=0&size=500)
+    // Failure dictionary + test cases referencing it by id; the page is loaded first, then streamed
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<StreamingResponseBody> getRunDetail(
+            @PathVariable Long id,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String className,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "500") int size
+    ) {
+        RunDetailService.Page detail = runDetailService.loadPage(id, status, className, page, size);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> runDetailService.write(detail, out));
+    }
+
+    // 2c. What changed between two runs (e.g. /api/runs/12/diff/15 -> 12 is the base, 15 the newer run)
+    @GetMapping("/{a}/diff/{b}")
+    public RunDiffDto diffRuns(
+            @PathVariable Long a,
+            @PathVariable Long b,
+            @RequestParam(defaultValue = "100") int limit // Max entries per list (counts are always exact)
+    ) {
+        return runDiffService.diff(a, b, limit);
+    }
+
     // Delete by ID
     @DeleteMapping("/{id}")
     public void deleteRun(@PathVariable Long id) {
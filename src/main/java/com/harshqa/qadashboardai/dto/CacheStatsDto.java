@@ -0,0 +1,15 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheStatsDto {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;       // 0.0 - 1.0
+    private long evictionCount;   // Size/TTL evictions (explicit invalidations are not counted)
+    private long invalidationCount;
+}
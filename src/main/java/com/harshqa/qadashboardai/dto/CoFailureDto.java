@@ -0,0 +1,15 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// A test that tends to fail together with the requested one
+@Data
+@Builder
+public class CoFailureDto {
+    private String className;
+    private String testName;
+    private int sharedFailures; // Runs where both failed
+    private int failedRuns;     // Runs where this test failed
+    private double jaccard;     // shared / runs where either failed (1.0 = always fail together)
+}
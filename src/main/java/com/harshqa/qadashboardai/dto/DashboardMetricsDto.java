@@ -11,5 +11,8 @@ public class DashboardMetricsDto {
     private double latestPassRate;
     private double passRateTrend; // The +/- difference vs previous period
     private long totalUniqueFailures; // Unique test cases failed in this period
+    private long uniqueFailureSignatures; // Distinct failures (fingerprints) in this period
+    private boolean uniqueCountsExact; // false = HyperLogLog estimates (~2% error)
     private double avgExecutionTime; // In seconds
+    private double p90ExecutionTime; // In seconds, across all tests of the period
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// GET /api/tests/{class}/{name}/failing-runs
+@Data
+@Builder
+public class FailingRunsDto {
+    private String className;
+    private String testName;
+    private int failedRunCount;
+    private List<Long> runIds; // Most recently executed first, capped at the requested limit
+}
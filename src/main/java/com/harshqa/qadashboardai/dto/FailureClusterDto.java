@@ -0,0 +1,19 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class FailureClusterDto {
+    private Long clusterId;
+    private Long representativeFailureId; // Most frequent failure of the cluster in the period
+    private String representativeHash;
+    private String representativeMessage;
+    private String category;
+    private int failureCount;             // Distinct failures (fingerprints) in the cluster
+    private long occurrenceCount;         // How many times any of them happened
+    private List<Long> failureIds;        // Most frequent first
+}
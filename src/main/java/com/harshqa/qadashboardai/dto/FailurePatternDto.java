@@ -8,5 +8,6 @@ import lombok.Data;
 public class FailurePatternDto {
     private String category; // e.g., "Timeout", "Assertion"
     private int count;
-    private String trend;    // "up", "down", "stable" (Simple calculation)
+    private int previousCount; // Same-length period just before the current one
+    private String trend;    // "up", "down", "stable" (current vs previous period)
 }
\ No newline at end of file
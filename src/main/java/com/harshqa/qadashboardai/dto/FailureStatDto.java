@@ -3,6 +3,8 @@ package com.harshqa.qadashboardai.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.LocalDate;
+
 @Data
 @Builder
 public class FailureStatDto {
@@ -10,4 +12,7 @@ public class FailureStatDto {
     private String errorMessage; // The short message
     private String hash;         // The unique ID
     private Long count;          // How many times it happened
+    private Integer clusterSize; // Clustered view only: distinct failures grouped under this one
+    private LocalDate firstSeen; // First / last day this failure occurred in the project
+    private LocalDate lastSeen;
 }
\ No newline at end of file
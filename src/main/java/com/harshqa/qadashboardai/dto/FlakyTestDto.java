@@ -11,7 +11,8 @@ public class FlakyTestDto {
     private long totalExecutions;
     private long failCount;
     private long passCount;
-    private double flakinessScore; // e.g., 50% (Failed half the time)
+    private long flipCount;        // PASSED <-> FAILED transitions in the window
+    private double flakinessScore; // Flip rate: 100% = status changed on every execution
 
     // Management Fields
     private String id; // Composite key or specific ID
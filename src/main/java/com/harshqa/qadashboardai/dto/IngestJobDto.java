@@ -0,0 +1,19 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class IngestJobDto {
+    private String jobId;
+    private String fileName;
+    private Long projectId;
+    private String status; // QUEUED, PARSING, DEDUPLICATING, PERSISTING, PUBLISHING, COMPLETED, FAILED
+    private Long runId;    // Set once COMPLETED
+    private String error;  // Set if FAILED
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
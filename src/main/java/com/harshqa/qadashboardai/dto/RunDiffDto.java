@@ -0,0 +1,30 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// GET /api/runs/{a}/diff/{b}. Counts are exact; each list holds at most `limit` entries (ordered by test id)
+@Data
+@Builder
+public class RunDiffDto {
+    private Long baseRunId;
+    private Long headRunId;
+
+    private int newlyFailingCount;  // Not failed in A, failed in B
+    private int newlyFixedCount;    // Failed in A, passed in B
+    private int stillFailingCount;  // Failed in both
+    private int addedCount;         // Only in B
+    private int removedCount;       // Only in A
+    private int unchangedCount;     // Same non-failed status in both
+
+    private List<RunDiffEntryDto> newlyFailing;
+    private List<RunDiffEntryDto> newlyFixed;
+    private List<RunDiffEntryDto> stillFailing;
+    private List<RunDiffEntryDto> added;
+    private List<RunDiffEntryDto> removed;
+
+    private double totalDurationDelta;         // Sum of the deltas of the tests that passed in both runs
+    private List<RunDiffEntryDto> durationDeltas; // Passed in both, largest |delta| first
+}
@@ -0,0 +1,19 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// One test in a run diff. base* = run A, head* = run B (null when the test is not in that run)
+@Data
+@Builder
+public class RunDiffEntryDto {
+    private String className;
+    private String testName;
+    private String baseStatus;
+    private String headStatus;
+    private Double baseDuration;
+    private Double headDuration;
+    private Double durationDelta;   // head - base, seconds (only when in both runs)
+    private Long baseFailureId;
+    private Long headFailureId;
+}
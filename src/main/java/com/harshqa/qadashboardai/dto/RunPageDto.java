@@ -0,0 +1,13 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class RunPageDto {
+    private List<RunSummaryDto> items; // Newest first
+    private String nextCursor;         // Pass as ?cursor= for the next page, null on the last page
+}
@@ -0,0 +1,21 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A run without its test cases (history tables, widgets). Details: GET /api/runs/{id}
+@Data
+@Builder
+public class RunSummaryDto {
+    private Long id;
+    private LocalDateTime executionDate;
+    private double totalDuration;
+    private int totalTests;
+    private int passCount;
+    private int failCount;
+    private int skipCount;
+    private String status;       // "Healthy" / "Unhealthy", same rule as TestRun
+    private boolean hasAiAnalysis;
+}
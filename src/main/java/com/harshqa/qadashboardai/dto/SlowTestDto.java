@@ -0,0 +1,21 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class SlowTestDto {
+    private String className;
+    private String testName;
+    private double baselineDuration; // Long-term EWMA, seconds
+    private double baselineStdDev;
+    private double recentDuration;   // Short-term EWMA, seconds
+    private double lastDuration;
+    private double increasePercent;  // recent vs baseline
+    private double zScore;           // (recent - baseline) / stdDev
+    private long samples;
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,22 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// GET /api/tests/{class}/{name}/history
+@Data
+@Builder
+public class TestHistoryDto {
+    private String className;
+    private String testName;
+
+    private int totalRuns;
+    private int passCount;
+    private int failCount;
+    private int skipCount;
+    private int statusChanges; // PASSED <-> FAILED flips (skips ignored): the flakiness signal
+
+    private List<TestHistoryEntryDto> entries; // Oldest first
+}
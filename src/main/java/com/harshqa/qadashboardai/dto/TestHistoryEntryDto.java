@@ -0,0 +1,16 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// One execution of a test
+@Data
+@AllArgsConstructor
+public class TestHistoryEntryDto {
+    private Long runId;
+    private LocalDateTime executionDate;
+    private String status;
+    private double duration; // Seconds
+}
@@ -16,4 +16,9 @@ public class TrendDto {
     private double avgDuration;
     private double maxDuration;
     private double minDuration;
+
+    // Test duration percentiles of the day (merged from the per-run histograms)
+    private double p50Duration;
+    private double p90Duration;
+    private double p99Duration;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.harshqa.qadashboardai.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UploadResultDto {
+    private String fileName;
+    private Long runId;   // Null if this file failed
+    private String status; // "SAVED" or "FAILED"
+    private String error;  // Why this file failed (other files are not affected)
+}
@@ -0,0 +1,36 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * HyperLogLog sketches (see HyperLogLog) of what failed in a project on one day:
+ * - failedTests: failing test identities (test_definitions ids)
+ * - failures: distinct failures (TestFailure ids, i.e. fingerprints)
+ * Sketches of several days merge into the distinct counts of the whole window.
+ */
+@Data
+@Entity
+@Table(name = "daily_failure_sketches", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"project_id", "day"})
+})
+public class DailyFailureSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private byte[] failedTests;
+
+    @Column(nullable = false)
+    private byte[] failures;
+}
@@ -0,0 +1,47 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated stats per project per day.
+ * Maintained incrementally at ingest (see RollupService), so trend/metric queries read
+ * one small row per day instead of every run and every test case.
+ */
+@Data
+@Entity
+@Table(name = "daily_project_rollup", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"project_id", "day"})
+})
+public class DailyProjectRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    private int runCount;
+    private long totalTests;
+    private long passCount;
+    private long failCount;
+    private long skipCount;
+
+    // Durations of individual (non-skipped) test cases
+    private double durationSum;
+    private long durationCount;
+    private Double durationMin; // Null if no durations yet
+    private Double durationMax;
+
+    @Transient
+    public double getPassRate() {
+        long executed = totalTests - skipCount;
+        return executed > 0 ? (double) passCount / executed * 100 : 0.0;
+    }
+}
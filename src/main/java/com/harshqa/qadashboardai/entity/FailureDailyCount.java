@@ -0,0 +1,39 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * How many times a failure occurred in a project on one day.
+ * Maintained at ingest (see FailureCountService): incremented for new runs, decremented when a rerun
+ * fixes failures or runs are deleted. Top failures / first-last seen are small aggregates over this table.
+ */
+@Data
+@Entity
+@Table(name = "failure_daily_counts",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"project_id", "failure_id", "day"})
+        },
+        indexes = {
+                @Index(name = "idx_failure_daily_counts_project_day", columnList = "project_id, day"), // Window scans
+                @Index(name = "idx_failure_daily_counts_failure", columnList = "failure_id") // Fingerprint merges
+        })
+public class FailureDailyCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "failure_id", nullable = false)
+    private Long failureId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    private long occurrences;
+}
@@ -0,0 +1,30 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * LSH band table: one row per (band key, failure). Failures sharing a band key are clustering candidates.
+ * The unique key doubles as the lookup index (band_key first).
+ */
+@Data
+@Entity
+@Table(name = "failure_lsh_buckets",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"band_key", "failure_id"})
+        },
+        indexes = {
+                @Index(name = "idx_failure_lsh_buckets_failure", columnList = "failure_id") // Cleanup on merge
+        })
+public class FailureLshBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "band_key", nullable = false)
+    private Long bandKey;
+
+    @Column(name = "failure_id", nullable = false)
+    private Long failureId;
+}
@@ -0,0 +1,30 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * MinHash signature of a TestFailure's stack trace and the near-duplicate cluster it was assigned to
+ * (see FailureClusterService). Kept out of test_failures so loading a failure never drags the blob along.
+ *
+ * clusterId is only a label: the id of the first failure of the cluster. That failure may be merged away
+ * later (FailureFingerprintMigration), the label stays valid.
+ */
+@Data
+@Entity
+@Table(name = "failure_signatures", indexes = {
+        @Index(name = "idx_failure_signatures_cluster", columnList = "cluster_id")
+})
+public class FailureSignature {
+
+    @Id
+    @Column(name = "failure_id")
+    private Long failureId;
+
+    @Column(name = "cluster_id", nullable = false)
+    private Long clusterId;
+
+    // MinHashSignature.NUM_HASHES ints, big-endian
+    @Column(nullable = false)
+    private byte[] signature;
+}
@@ -0,0 +1,23 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Raw XML of a durable ingestion job (see IngestJobRecord).
+ * Kept in the database rather than on disk, so whichever node claims the job can read it.
+ * Separate table: claiming / polling jobs never loads the report bytes.
+ * Written and read through IngestJobPayloadJdbcRepository (streamed, not via this entity).
+ */
+@Data
+@Entity
+@Table(name = "ingest_job_payloads")
+public class IngestJobPayload {
+
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Column(nullable = false)
+    private byte[] reportXml;
+}
@@ -0,0 +1,56 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable ingestion job (shared by every app instance).
+ * Workers on any node claim QUEUED jobs (or RUNNING jobs whose lease expired, e.g. the node died)
+ * with SELECT ... FOR UPDATE SKIP LOCKED, so each job is processed by one node at a time.
+ * The raw XML is in ingest_job_payloads (IngestJobPayload) until the job reaches a final state.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "ingest_jobs", indexes = {
+        @Index(name = "idx_ingest_jobs_status", columnList = "status, id")
+})
+public class IngestJobRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long projectId;
+
+    private String fileName;
+
+    // QUEUED, RUNNING, COMPLETED, FAILED
+    @Column(nullable = false)
+    private String status = "QUEUED";
+
+    private int attempts;
+
+    // Node currently holding the job, and until when. Expired lease -> job can be claimed again.
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+
+    private Long runId;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public IngestJobRecord(Long projectId, String fileName) {
+        this.projectId = projectId;
+        this.fileName = fileName;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+}
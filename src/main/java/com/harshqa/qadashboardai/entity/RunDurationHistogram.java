@@ -0,0 +1,34 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Duration histogram (see DurationHistogram) of one run's non-skipped test cases, built at ingest.
+ * Project and day are copied from the run, so a trend window is read with one index scan and the
+ * histograms of a day are merged for its percentiles.
+ */
+@Data
+@Entity
+@Table(name = "run_duration_histograms", indexes = {
+        @Index(name = "idx_run_duration_histograms_project_day", columnList = "project_id, day")
+})
+public class RunDurationHistogram {
+
+    @Id
+    @Column(name = "run_id")
+    private Long runId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    private int encodingVersion;
+
+    @Column(nullable = false)
+    private byte[] data;
+}
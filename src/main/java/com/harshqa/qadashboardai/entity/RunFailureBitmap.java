@@ -0,0 +1,26 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Failing tests of one run: Roaring bitmap of test definition ids (see FailureBitmaps).
+ * Every run has a row (empty bitmap when nothing failed), which is also how the backfill knows what is done.
+ */
+@Data
+@Entity
+@Table(name = "run_failure_bitmaps", indexes = {
+        @Index(name = "idx_run_failure_bitmaps_project", columnList = "project_id")
+})
+public class RunFailureBitmap {
+
+    @Id
+    @Column(name = "run_id")
+    private Long runId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(nullable = false)
+    private byte[] data;
+}
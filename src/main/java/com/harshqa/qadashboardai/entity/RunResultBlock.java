@@ -0,0 +1,36 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Passed + skipped results of one run, stored as a single encoded block instead of one
+ * test_cases row each (see RunResultCodec for the format).
+ * Failed tests stay full TestCase rows, because they link to a TestFailure.
+ *
+ * The duration aggregates are kept next to the block so rollups can be rebuilt in SQL
+ * without decoding it.
+ */
+@Data
+@Entity
+@Table(name = "run_result_blocks")
+public class RunResultBlock {
+
+    @Id
+    @Column(name = "run_id")
+    private Long runId;
+
+    private int encodingVersion;
+    private int entryCount;
+    private int passCount;
+    private int skipCount;
+
+    // Passed (non-skipped) durations, in seconds like TestCase.duration
+    private double durationSum;
+    private long durationCount;
+    private Double durationMin;
+    private Double durationMax;
+
+    @Column(nullable = false)
+    private byte[] data;
+}
@@ -8,15 +8,24 @@ import lombok.ToString;
 
 @Data
 @Entity
-@Table(name = "test_cases")
+@Table(name = "test_cases", indexes = {
+        @Index(name = "idx_test_cases_run_id", columnList = "run_id"), // Per-run lookups (details, rollup rebuilds)
+        @Index(name = "idx_test_cases_definition_id", columnList = "test_definition_id"), // Per-test lookups
+        @Index(name = "idx_test_cases_failure_id", columnList = "failure_id") // Per-failure lookups / merges
+})
 public class TestCase {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String testName;
-    private String className;
+    // Class + test name live in test_definitions (an integer per row instead of two long strings)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "test_definition_id") // Made NOT NULL by TestDefinitionMigration once old rows are backfilled
+    @JsonIgnore
+    @ToString.Exclude
+    private TestDefinition testDefinition;
+
     private double duration;
 
     // Storing Status as a String for simplicity (PASSED, FAILED, SKIPPED)
@@ -27,6 +36,17 @@ public class TestCase {
     @JoinColumn(name = "failure_id")
     private TestFailure testFailure;
 
+    // Names are still part of the JSON (and of the Java API) as before
+    @JsonProperty("testName")
+    public String getTestName() {
+        return testDefinition != null ? testDefinition.getTestName() : null;
+    }
+
+    @JsonProperty("className")
+    public String getClassName() {
+        return testDefinition != null ? testDefinition.getClassName() : null;
+    }
+
     // --- NEW HELPER FOR FRONTEND ---
     // This creates a JSON field "failureMessage" automatically!
     @JsonProperty("failureMessage")
@@ -0,0 +1,48 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Pass/fail history of one test for one day (per project).
+ * Maintained incrementally at ingest (see TestStatsService), so the flaky-tests view
+ * reads one small row per test per day instead of re-scanning test_cases.
+ *
+ * Only PASSED/FAILED executions are counted; skipped tests say nothing about flakiness.
+ */
+@Data
+@Entity
+@Table(name = "test_daily_stats",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"project_id", "test_definition_id", "day"})
+        },
+        indexes = {
+                @Index(name = "idx_test_daily_stats_project_day", columnList = "project_id, day") // Window scans
+        })
+public class TestDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "test_definition_id")
+    private Integer testDefinitionId;
+
+    private int executions;
+    private int failures;
+
+    // PASSED <-> FAILED transitions within the day (e.g. a failure fixed by a rerun)
+    private int flips;
+
+    // Used to count transitions across days (previous day's last vs this day's first)
+    private String firstStatus;
+    private String lastStatus;
+}
@@ -0,0 +1,31 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One row per distinct test of a project (class + name).
+ * test_cases and test_daily_stats reference it by a compact integer id instead of repeating
+ * the (often long) class and test names on every row.
+ * Names are never null (a missing classname is stored as "").
+ */
+@Data
+@Entity
+@Table(name = "test_definitions", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"project_id", "class_name", "test_name"})
+})
+public class TestDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "class_name", nullable = false, length = 1000)
+    private String className;
+
+    @Column(name = "test_name", nullable = false, length = 1000)
+    private String testName;
+}
@@ -0,0 +1,39 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running duration baseline of one test (per test identity, so per project).
+ * Updated with every passed execution at ingest (see TestDurationBaselineService):
+ * - mean / variance: slow EWMA = what this test "normally" takes
+ * - recentMean: fast EWMA = what it takes lately
+ * A regression is a recentMean well above mean (in standard deviations), read without any history scan.
+ */
+@Data
+@Entity
+@Table(name = "test_duration_baselines", indexes = {
+        @Index(name = "idx_test_duration_baselines_project", columnList = "project_id")
+})
+public class TestDurationBaseline {
+
+    @Id
+    @Column(name = "test_definition_id")
+    private Integer testDefinitionId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    private long samples;
+
+    // Seconds, like TestCase.duration
+    private double mean;
+    private double variance;
+    private double recentMean;
+    private double lastDuration;
+
+    private Long lastRunId;
+    private LocalDateTime updatedAt;
+}
@@ -5,7 +5,9 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "test_failures")
+@Table(name = "test_failures", indexes = {
+        @Index(name = "idx_test_failures_category", columnList = "category")
+})
 public class TestFailure {
 
     @Id
@@ -22,4 +24,10 @@ public class TestFailure {
 
     @Column(columnDefinition = "TEXT") // Use Postgres TEXT type
     private String stackTrace;
+
+    // Timeout, Assertion, ... assigned once when the failure is first seen (see FailureClassifier)
+    private String category;
+
+    // FailureFingerprinter.VERSION used for failureHash (null = raw trace hash from before normalization)
+    private Integer fingerprintVersion;
 }
\ No newline at end of file
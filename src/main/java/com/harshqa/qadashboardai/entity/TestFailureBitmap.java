@@ -0,0 +1,28 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Inverted index: runs in which one test failed, as a Roaring bitmap of run ids (see FailureBitmaps).
+ * Only tests that failed at least once have a row.
+ */
+@Data
+@Entity
+@Table(name = "test_failure_bitmaps", indexes = {
+        @Index(name = "idx_test_failure_bitmaps_project", columnList = "project_id")
+})
+public class TestFailureBitmap {
+
+    @Id
+    @Column(name = "test_definition_id")
+    private Integer testDefinitionId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    private int failedRuns; // Cardinality of data
+
+    @Column(nullable = false)
+    private byte[] data;
+}
@@ -0,0 +1,37 @@
+package com.harshqa.qadashboardai.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Execution timeline of one test (status + duration per run), see TestHistoryCodec for the format.
+ * Ingest appends to `tail` in SQL; once tailCount reaches the configured limit the tail is folded
+ * into the run-length encoded `data`. Reading a test's history = one row, no test_cases scan.
+ */
+@Data
+@Entity
+@Table(name = "test_histories", indexes = {
+        @Index(name = "idx_test_histories_project", columnList = "project_id")
+})
+public class TestHistory {
+
+    @Id
+    @Column(name = "test_definition_id")
+    private Integer testDefinitionId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    private int encodingVersion;
+    private int entryCount;       // Entries in data
+    private byte[] data;          // Compacted part (null until the first compaction)
+
+    @Column(nullable = false)
+    private byte[] tail;          // Appended records not compacted yet
+    private int tailCount;
+
+    private Long firstRunId;      // Oldest run recorded (drives the backfill)
+    private LocalDateTime updatedAt;
+}
@@ -1,15 +1,19 @@
 package com.harshqa.qadashboardai.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.ToString;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
 @Entity // <--- Tells JPA: "This class is a Database Table"
-@Table(name = "test_runs") // Optional: Customizes the table name
+@Table(name = "test_runs", indexes = { // Optional: Customizes the table name
+        @Index(name = "idx_test_runs_project_date", columnList = "project_id, execution_date") // Window queries per project
+})
 public class TestRun {
 
     @Id // <--- Primary Key
@@ -33,19 +37,43 @@ public class TestRun {
     // Relationship: One TestRun has Many TestCases
     // "mappedBy" refers to the field name in the child class
     // CascadeType.ALL means: If I save the Run, save all its TestCases too.
+    // With compact storage these are only the failures (+ failures fixed by a rerun).
     @OneToMany(mappedBy = "testRun", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore // Serialized through getAllTestCases()
     private List<TestCase> testCases = new ArrayList<>();
 
+    // Passed/skipped results decoded from the run's RunResultBlock (filled by RunResultService, never saved)
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    private List<TestCase> compactResults = new ArrayList<>();
+
     // Link to Project
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
     @JsonIgnore // Prevent infinite recursion in JSON response
     private Project project;
 
+    // The API still returns every result as "testCases", whichever way it is stored
+    @Transient
+    @JsonProperty("testCases")
+    public List<TestCase> getAllTestCases() {
+        if (compactResults.isEmpty()) return testCases;
+        List<TestCase> all = new ArrayList<>(testCases.size() + compactResults.size());
+        all.addAll(testCases);
+        all.addAll(compactResults);
+        return all;
+    }
+
     // @Transient tells Hibernate/JPA: "Do not look for a 'status' column in the DB".
     // However, Jackson (JSON) will still call this getter and add "status" to the API response.
     @Transient
     public String getStatus() {
+        return statusOf(totalTests, passCount, skipCount);
+    }
+
+    // Shared with RunSummaryDto, which is built without loading the entity
+    public static String statusOf(int totalTests, int passCount, int skipCount) {
         if (totalTests == 0) {
             return "Unhealthy"; // Default to Unhealthy if empty
         }
@@ -0,0 +1,37 @@
+package com.harshqa.qadashboardai.model;
+
+import com.harshqa.qadashboardai.dto.TestRunEvent;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One uploaded file travelling through the async ingestion pipeline.
+ * Status: QUEUED -> PARSING -> DEDUPLICATING -> PERSISTING -> PUBLISHING -> COMPLETED (or FAILED)
+ */
+@Data
+public class IngestJob {
+
+    private final String id;
+    private final Long projectId;
+    private final String fileName;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    // Read by the status endpoint while workers update them
+    private volatile String status = "QUEUED";
+    private volatile Long runId;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    // Upload order within the project (0 = not queued); persisted strictly in this order
+    private long sequence;
+    private boolean released;
+
+    // Hand-off state between stages (cleared as soon as it is no longer needed)
+    private Path reportFile;
+    private TestReport report;
+    private Map<String, Long> failureIds;
+    private TestRunEvent event;
+}
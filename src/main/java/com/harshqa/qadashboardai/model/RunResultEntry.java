@@ -0,0 +1,13 @@
+package com.harshqa.qadashboardai.model;
+
+/**
+ * One result of a run, as read for the run-detail API (from a test_cases row or a compact block entry).
+ * Names are filled in only for the entries that end up in the response.
+ */
+public record RunResultEntry(int definitionId, String className, String testName, double duration,
+                             String status, Long failureId) {
+
+    public RunResultEntry withNames(String className, String testName) {
+        return new RunResultEntry(definitionId, className, testName, duration, status, failureId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.harshqa.qadashboardai.model;
+
+/**
+ * Natural key of a test inside a project. Resolved to a test_definitions id at ingest.
+ */
+public record TestKey(Long projectId, String className, String testName) {
+
+    // Null names are stored as "" so they still get a (unique) definition
+    public static TestKey of(Long projectId, String className, String testName) {
+        return new TestKey(projectId, className != null ? className : "", testName != null ? testName : "");
+    }
+}
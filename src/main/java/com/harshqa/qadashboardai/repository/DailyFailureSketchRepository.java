@@ -0,0 +1,54 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.DailyFailureSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyFailureSketchRepository extends JpaRepository<DailyFailureSketch, Long> {
+
+    // Window read, same bounds as the rollups
+    List<DailyFailureSketch> findAllByProjectIdAndDayAfter(Long projectId, LocalDate after);
+
+    // Row lock for the read-merge-write at ingest (two uploads of the same day must not lose registers)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DailyFailureSketch> findByProjectIdAndDay(Long projectId, LocalDate day);
+
+    // Creates the day's row with empty sketches if there is none yet
+    @Modifying
+    @Query(value = "INSERT INTO daily_failure_sketches (project_id, day, failed_tests, failures) " +
+            "VALUES (:projectId, :day, :empty, :empty) ON CONFLICT (project_id, day) DO NOTHING", nativeQuery = true)
+    void insertEmptyIfMissing(@Param("projectId") Long projectId, @Param("day") LocalDate day, @Param("empty") byte[] empty);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_failure_sketches WHERE project_id = :projectId AND day = :day", nativeQuery = true)
+    void deleteDay(@Param("projectId") Long projectId, @Param("day") LocalDate day);
+
+    /**
+     * Failed test cases of a project in [start, end) (failures are always test_cases rows, also with compact results).
+     * Row: [testDefinitionId, failureId]
+     */
+    @Query(value = "SELECT tc.test_definition_id, tc.failure_id FROM test_cases tc " +
+            "JOIN test_runs tr ON tr.id = tc.run_id " +
+            "WHERE tr.project_id = :projectId " +
+            "AND tr.execution_date >= :start AND tr.execution_date < :end " +
+            "AND tc.status = 'FAILED'", nativeQuery = true)
+    List<Object[]> findFailedCases(@Param("projectId") Long projectId, @Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end);
+
+    // Backfill: rollup days (i.e. days with runs) without sketches. Row: [projectId, day]
+    @Query(value = "SELECT r.project_id, r.day FROM daily_project_rollup r " +
+            "WHERE NOT EXISTS (SELECT 1 FROM daily_failure_sketches s WHERE s.project_id = r.project_id AND s.day = r.day)",
+            nativeQuery = true)
+    List<Object[]> findDaysWithoutSketch();
+}
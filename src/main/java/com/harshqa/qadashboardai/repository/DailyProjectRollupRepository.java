@@ -0,0 +1,84 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.DailyProjectRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyProjectRollupRepository extends JpaRepository<DailyProjectRollup, Long> {
+
+    // Window read: one row per day
+    List<DailyProjectRollup> findAllByProjectIdAndDayAfterOrderByDayAsc(Long projectId, LocalDate after);
+
+    List<DailyProjectRollup> findAllByProjectIdAndDayAfterAndDayLessThanEqual(Long projectId, LocalDate after, LocalDate until);
+
+    /**
+     * Adds one run's numbers to the day's row (creates the row on first run of the day).
+     * Atomic in the DB, so concurrent uploads for the same day cannot lose updates.
+     * Min/max only count when the run has durations (durationCount > 0); LEAST/GREATEST ignore NULLs.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_project_rollup (project_id, day, run_count, total_tests, pass_count, fail_count, skip_count, " +
+            "duration_sum, duration_count, duration_min, duration_max) " +
+            "VALUES (:projectId, :day, :runCount, :totalTests, :passCount, :failCount, :skipCount, " +
+            ":durationSum, :durationCount, " +
+            "CASE WHEN :durationCount > 0 THEN :durationMin END, CASE WHEN :durationCount > 0 THEN :durationMax END) " +
+            "ON CONFLICT (project_id, day) DO UPDATE SET " +
+            "run_count = daily_project_rollup.run_count + EXCLUDED.run_count, " +
+            "total_tests = daily_project_rollup.total_tests + EXCLUDED.total_tests, " +
+            "pass_count = daily_project_rollup.pass_count + EXCLUDED.pass_count, " +
+            "fail_count = daily_project_rollup.fail_count + EXCLUDED.fail_count, " +
+            "skip_count = daily_project_rollup.skip_count + EXCLUDED.skip_count, " +
+            "duration_sum = daily_project_rollup.duration_sum + EXCLUDED.duration_sum, " +
+            "duration_count = daily_project_rollup.duration_count + EXCLUDED.duration_count, " +
+            "duration_min = LEAST(daily_project_rollup.duration_min, EXCLUDED.duration_min), " +
+            "duration_max = GREATEST(daily_project_rollup.duration_max, EXCLUDED.duration_max)",
+            nativeQuery = true)
+    void addRun(@Param("projectId") Long projectId, @Param("day") LocalDate day, @Param("runCount") int runCount,
+                @Param("totalTests") long totalTests, @Param("passCount") long passCount, @Param("failCount") long failCount,
+                @Param("skipCount") long skipCount, @Param("durationSum") double durationSum, @Param("durationCount") long durationCount,
+                @Param("durationMin") double durationMin, @Param("durationMax") double durationMax);
+
+    // Rerun merge: failures flipped to PASSED
+    @Modifying
+    @Query(value = "UPDATE daily_project_rollup SET pass_count = pass_count + :fixed, fail_count = fail_count - :fixed " +
+            "WHERE project_id = :projectId AND day = :day", nativeQuery = true)
+    void applyFixedFailures(@Param("projectId") Long projectId, @Param("day") LocalDate day, @Param("fixed") int fixed);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_project_rollup WHERE project_id = :projectId AND day = :day", nativeQuery = true)
+    void deleteDay(@Param("projectId") Long projectId, @Param("day") LocalDate day);
+
+    /**
+     * Rebuilds a project's rollup rows from test_runs/test_cases for runs executed in [start, end) that have no row yet.
+     * Used after deletes (min/max cannot be "subtracted") and to backfill existing data.
+     * Durations come from the test_cases rows plus the aggregates stored with the run's compact block (if any).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_project_rollup (project_id, day, run_count, total_tests, pass_count, fail_count, skip_count, " +
+            "duration_sum, duration_count, duration_min, duration_max) " +
+            "SELECT tr.project_id, CAST(tr.execution_date AS DATE), COUNT(*), SUM(tr.total_tests), SUM(tr.pass_count), " +
+            "SUM(tr.fail_count), SUM(tr.skip_count), " +
+            "COALESCE(SUM(d.duration_sum), 0) + COALESCE(SUM(b.duration_sum), 0), " +
+            "COALESCE(SUM(d.duration_count), 0) + COALESCE(SUM(b.duration_count), 0), " +
+            "LEAST(MIN(d.duration_min), MIN(b.duration_min)), GREATEST(MAX(d.duration_max), MAX(b.duration_max)) " +
+            "FROM test_runs tr " +
+            "LEFT JOIN LATERAL (SELECT SUM(tc.duration) AS duration_sum, COUNT(*) AS duration_count, " +
+            "  MIN(tc.duration) AS duration_min, MAX(tc.duration) AS duration_max " +
+            "  FROM test_cases tc WHERE tc.run_id = tr.id AND tc.status <> 'SKIPPED') d ON TRUE " +
+            "LEFT JOIN run_result_blocks b ON b.run_id = tr.id " +
+            "WHERE tr.execution_date >= :start AND tr.execution_date < :end " +
+            "AND tr.project_id = :projectId " +
+            "AND NOT EXISTS (SELECT 1 FROM daily_project_rollup r " +
+            "  WHERE r.project_id = tr.project_id AND r.day = CAST(tr.execution_date AS DATE)) " +
+            "GROUP BY tr.project_id, CAST(tr.execution_date AS DATE)",
+            nativeQuery = true)
+    int rebuildMissing(@Param("projectId") Long projectId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,32 @@
+package com.harshqa.qadashboardai.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads that go with the failure bitmaps. Run ids are passed as one array parameter,
+ * since a test's failing runs can be many more than a query's parameter limit.
+ */
+@Repository
+public class FailureBitmapJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FailureBitmapJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // The `limit` most recently executed of the given runs (execution time, not run id: uploads can come late)
+    public List<Long> findNewestRuns(Long[] runIds, int limit) {
+        if (runIds.length == 0 || limit <= 0) return List.of();
+        return jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(
+                    "SELECT id FROM test_runs WHERE id = ANY(?) ORDER BY execution_date DESC, id DESC LIMIT ?");
+            ps.setArray(1, con.createArrayOf("bigint", runIds));
+            ps.setInt(2, limit);
+            return ps;
+        }, (rs, i) -> rs.getLong(1));
+    }
+}
@@ -0,0 +1,96 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.FailureSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to failure_signatures / failure_lsh_buckets (see FailureClusterService).
+ * Inserts use ON CONFLICT DO NOTHING: when two uploads race on the same new failure, the first signature wins.
+ */
+@Repository
+public class FailureClusterJdbcRepository {
+
+    // Each band key is probed with its own LIMIT, so a huge bucket (a very common trace) stays cheap
+    private static final String PROBE_SQL =
+            "SELECT k.band_key, s.failure_id, s.cluster_id, s.signature " +
+            "FROM unnest(?) AS k(band_key) " +
+            "CROSS JOIN LATERAL (SELECT b.failure_id FROM failure_lsh_buckets b " +
+            "                    WHERE b.band_key = k.band_key ORDER BY b.failure_id LIMIT ?) b " +
+            "JOIN failure_signatures s ON s.failure_id = b.failure_id";
+
+    private static final String INSERT_SIGNATURE_SQL =
+            "INSERT INTO failure_signatures (failure_id, cluster_id, signature) VALUES (?, ?, ?) " +
+            "ON CONFLICT (failure_id) DO NOTHING";
+
+    private static final String INSERT_BUCKET_SQL =
+            "INSERT INTO failure_lsh_buckets (band_key, failure_id) VALUES (?, ?) " +
+            "ON CONFLICT (band_key, failure_id) DO NOTHING";
+
+    public record Candidate(long bandKey, long failureId, long clusterId, byte[] signature) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public FailureClusterJdbcRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${qa.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // Signed failures sharing one of the given band keys (at most perBucketLimit per key)
+    public List<Candidate> findCandidates(Collection<Long> bandKeys, int perBucketLimit) {
+        if (bandKeys.isEmpty()) return List.of();
+
+        List<Candidate> candidates = new ArrayList<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(PROBE_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", bandKeys.toArray()));
+            ps.setInt(2, perBucketLimit);
+            return ps;
+        }, rs -> {
+            candidates.add(new Candidate(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBytes(4)));
+        });
+        return candidates;
+    }
+
+    public void insertSignatures(List<FailureSignature> signatures) {
+        if (signatures.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SIGNATURE_SQL, signatures, batchSize, (ps, s) -> {
+            ps.setLong(1, s.getFailureId());
+            ps.setLong(2, s.getClusterId());
+            ps.setBytes(3, s.getSignature());
+        });
+    }
+
+    // buckets: {bandKey, failureId}
+    public void insertBuckets(List<long[]> buckets) {
+        if (buckets.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_BUCKET_SQL, buckets, batchSize, (ps, b) -> {
+            ps.setLong(1, b[0]);
+            ps.setLong(2, b[1]);
+        });
+    }
+
+    // Backfill: failures stored before clustering existed
+    public Map<Long, String> findUnsigned(int limit) {
+        Map<Long, String> idToTrace = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT f.id, f.stack_trace FROM test_failures f " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM failure_signatures s WHERE s.failure_id = f.id) " +
+                        "ORDER BY f.id LIMIT ?",
+                rs -> {
+                    idToTrace.put(rs.getLong(1), rs.getString(2));
+                }, limit);
+        return idToTrace;
+    }
+}
@@ -0,0 +1,104 @@
+package com.harshqa.qadashboardai.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Bulk writes for failure_daily_counts. Counts are changed with deltas in the DB (ON CONFLICT / UPDATE ... -),
+ * so concurrent uploads cannot lose increments. Rows that drop to zero are removed, so "the failure has a row"
+ * always means "it occurred that day" (first/last seen are MIN/MAX of the days).
+ */
+@Repository
+public class FailureDailyCountJdbcRepository {
+
+    private static final String ADD_SQL =
+            "INSERT INTO failure_daily_counts (project_id, failure_id, day, occurrences) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (project_id, failure_id, day) DO UPDATE SET " +
+            "occurrences = failure_daily_counts.occurrences + EXCLUDED.occurrences";
+
+    private static final String SUBTRACT_SQL =
+            "UPDATE failure_daily_counts SET occurrences = occurrences - ? " +
+            "WHERE project_id = ? AND failure_id = ? AND day = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public FailureDailyCountJdbcRepository(JdbcTemplate jdbcTemplate,
+                                           @Value("${qa.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // counts: failure id -> occurrences to add (one entry per failure)
+    public void add(Long projectId, LocalDate day, Map<Long, Long> counts) {
+        if (counts.isEmpty()) return;
+
+        Date sqlDay = Date.valueOf(day);
+        jdbcTemplate.batchUpdate(ADD_SQL, new ArrayList<>(counts.entrySet()), batchSize, (ps, e) -> {
+            ps.setLong(1, projectId);
+            ps.setLong(2, e.getKey());
+            ps.setDate(3, sqlDay);
+            ps.setLong(4, e.getValue());
+        });
+    }
+
+    // counts: failure id -> occurrences to remove
+    public void subtract(Long projectId, LocalDate day, Map<Long, Long> counts) {
+        if (counts.isEmpty()) return;
+
+        Date sqlDay = Date.valueOf(day);
+        jdbcTemplate.batchUpdate(SUBTRACT_SQL, new ArrayList<>(counts.entrySet()), batchSize, (ps, e) -> {
+            ps.setLong(1, e.getValue());
+            ps.setLong(2, projectId);
+            ps.setLong(3, e.getKey());
+            ps.setDate(4, sqlDay);
+        });
+        deleteEmpty(projectId, day);
+    }
+
+    // Runs about to be deleted (all of one project and day): their FAILED rows are subtracted in one statement
+    public void subtractRuns(Long projectId, LocalDate day, Collection<Long> runIds) {
+        if (runIds.isEmpty()) return;
+
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(
+                    "UPDATE failure_daily_counts c SET occurrences = c.occurrences - x.n " +
+                    "FROM (SELECT tc.failure_id, COUNT(*) AS n FROM test_cases tc " +
+                    "      WHERE tc.run_id = ANY(?) AND tc.status = 'FAILED' AND tc.failure_id IS NOT NULL " +
+                    "      GROUP BY tc.failure_id) x " +
+                    "WHERE c.project_id = ? AND c.day = ? AND c.failure_id = x.failure_id");
+            ps.setArray(1, con.createArrayOf("bigint", runIds.toArray()));
+            ps.setLong(2, projectId);
+            ps.setDate(3, Date.valueOf(day));
+            return ps;
+        });
+        deleteEmpty(projectId, day);
+    }
+
+    private void deleteEmpty(Long projectId, LocalDate day) {
+        jdbcTemplate.update("DELETE FROM failure_daily_counts WHERE project_id = ? AND day = ? AND occurrences <= 0",
+                projectId, Date.valueOf(day));
+    }
+
+    /**
+     * Backfill from test_cases for the days (per project) that have no counts yet.
+     * Days without any failure simply produce no rows.
+     */
+    public int rebuildMissing() {
+        return jdbcTemplate.update(
+                "INSERT INTO failure_daily_counts (project_id, failure_id, day, occurrences) " +
+                "SELECT tr.project_id, tc.failure_id, CAST(tr.execution_date AS DATE), COUNT(*) " +
+                "FROM test_cases tc JOIN test_runs tr ON tr.id = tc.run_id " +
+                "WHERE tc.status = 'FAILED' AND tc.failure_id IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM failure_daily_counts c " +
+                "  WHERE c.project_id = tr.project_id AND c.day = CAST(tr.execution_date AS DATE)) " +
+                "GROUP BY tr.project_id, tc.failure_id, CAST(tr.execution_date AS DATE)");
+    }
+}
@@ -0,0 +1,32 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.FailureDailyCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FailureDailyCountRepository extends JpaRepository<FailureDailyCount, Long> {
+
+    /**
+     * Most frequent failures of a project for the days after :after (one row per failure per day in the window).
+     * Row: [failureId, occurrences]
+     */
+    @Query(value = "SELECT c.failure_id, SUM(c.occurrences) FROM failure_daily_counts c " +
+            "WHERE c.project_id = :projectId AND c.day > :after " +
+            "GROUP BY c.failure_id " +
+            "ORDER BY SUM(c.occurrences) DESC, c.failure_id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> findTopFailures(@Param("projectId") Long projectId, @Param("after") LocalDate after, @Param("limit") int limit);
+
+    // First / last day each failure occurred in the project (whole history). Row: [failureId, firstSeen, lastSeen]
+    @Query(value = "SELECT c.failure_id, MIN(c.day), MAX(c.day) FROM failure_daily_counts c " +
+            "WHERE c.project_id = :projectId AND c.failure_id IN (:failureIds) " +
+            "GROUP BY c.failure_id", nativeQuery = true)
+    List<Object[]> findSeenRange(@Param("projectId") Long projectId, @Param("failureIds") Collection<Long> failureIds);
+}
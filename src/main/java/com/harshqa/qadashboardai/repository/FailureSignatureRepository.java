@@ -0,0 +1,27 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.FailureSignature;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FailureSignatureRepository extends JpaRepository<FailureSignature, Long> {
+
+    /**
+     * Failure occurrences of a project for the days after :after, per (cluster, failure), from failure_daily_counts.
+     * Failures without a signature yet (backfill still running) count as their own cluster.
+     * Row: [clusterId, failureId, occurrences]
+     */
+    @Query(value = "SELECT COALESCE(s.cluster_id, c.failure_id), c.failure_id, SUM(c.occurrences) " +
+            "FROM failure_daily_counts c " +
+            "LEFT JOIN failure_signatures s ON s.failure_id = c.failure_id " +
+            "WHERE c.project_id = :projectId " +
+            "AND c.day > :after " +
+            "GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> countOccurrencesByCluster(@Param("after") LocalDate after, @Param("projectId") Long projectId);
+}
@@ -0,0 +1,37 @@
+package com.harshqa.qadashboardai.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Raw XML of durable ingestion jobs (table: ingest_job_payloads).
+ * The upload is streamed into the bytea column, so a big report is not copied into a byte[] first.
+ */
+@Repository
+public class IngestJobPayloadJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IngestJobPayloadJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(Long jobId, InputStream reportXml, long size) {
+        jdbcTemplate.update("INSERT INTO ingest_job_payloads (job_id, report_xml) VALUES (?, ?)", ps -> {
+            ps.setLong(1, jobId);
+            ps.setBinaryStream(2, reportXml, size);
+        });
+    }
+
+    public Optional<byte[]> findReport(Long jobId) {
+        return jdbcTemplate.query("SELECT report_xml FROM ingest_job_payloads WHERE job_id = ?",
+                (rs, i) -> rs.getBytes(1), jobId).stream().findFirst();
+    }
+
+    public void delete(Long jobId) {
+        jdbcTemplate.update("DELETE FROM ingest_job_payloads WHERE job_id = ?", jobId);
+    }
+}
@@ -0,0 +1,43 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.IngestJobRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IngestJobRepository extends JpaRepository<IngestJobRecord, Long> {
+
+    /**
+     * Locks up to :limit claimable jobs. Rows already locked by another node are skipped (not waited on),
+     * so N nodes polling at the same time each get a different set of jobs.
+     * Must run inside a transaction; the caller marks the rows RUNNING before committing.
+     */
+    @Query(value = "SELECT * FROM ingest_jobs " +
+            "WHERE status = 'QUEUED' OR (status = 'RUNNING' AND lease_expires_at < :now) " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<IngestJobRecord> lockClaimableJobs(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Heartbeat: keep the lease alive while this node is still working on the jobs
+    @Modifying
+    @Query("UPDATE IngestJobRecord j SET j.leaseExpiresAt = :leaseExpiresAt " +
+            "WHERE j.id IN :ids AND j.leaseOwner = :owner AND j.status = 'RUNNING'")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                    @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+    // Final state change, only if this node still owns the lease (otherwise another node took over)
+    @Modifying
+    @Query("UPDATE IngestJobRecord j SET j.status = :status, j.runId = :runId, j.lastError = :error, " +
+            "j.leaseOwner = NULL, j.leaseExpiresAt = NULL, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.leaseOwner = :owner")
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("status") String status,
+                @Param("runId") Long runId, @Param("error") String error, @Param("now") LocalDateTime now);
+}
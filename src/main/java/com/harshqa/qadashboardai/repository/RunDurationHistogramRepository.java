@@ -0,0 +1,29 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.RunDurationHistogram;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RunDurationHistogramRepository extends JpaRepository<RunDurationHistogram, Long> {
+
+    // Window read, same bounds as the rollups
+    List<RunDurationHistogram> findAllByProjectIdAndDayAfter(Long projectId, LocalDate after);
+
+    @Modifying
+    @Query("DELETE FROM RunDurationHistogram h WHERE h.runId IN :runIds")
+    void deleteAllByRunIds(@Param("runIds") Collection<Long> runIds);
+
+    // Backfill: runs stored before histograms existed
+    @Query(value = "SELECT tr.id FROM test_runs tr " +
+            "WHERE NOT EXISTS (SELECT 1 FROM run_duration_histograms h WHERE h.run_id = tr.id) " +
+            "ORDER BY tr.id LIMIT :limit", nativeQuery = true)
+    List<Long> findRunIdsWithoutHistogram(@Param("limit") int limit);
+}
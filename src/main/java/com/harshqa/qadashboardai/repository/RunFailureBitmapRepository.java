@@ -0,0 +1,30 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.RunFailureBitmap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RunFailureBitmapRepository extends JpaRepository<RunFailureBitmap, Long> {
+
+    @Modifying
+    @Query("DELETE FROM RunFailureBitmap b WHERE b.runId IN :runIds")
+    void deleteAllByRunIds(@Param("runIds") Collection<Long> runIds);
+
+    // Backfill: runs stored before the bitmaps existed
+    @Query(value = "SELECT tr.id FROM test_runs tr " +
+            "WHERE NOT EXISTS (SELECT 1 FROM run_failure_bitmaps b WHERE b.run_id = tr.id) " +
+            "ORDER BY tr.id LIMIT :limit", nativeQuery = true)
+    List<Long> findRunIdsWithoutBitmap(@Param("limit") int limit);
+
+    // Backfill: failed tests of the given runs (failures are always test_cases rows). Row: [runId, testDefinitionId]
+    @Query(value = "SELECT tc.run_id, tc.test_definition_id FROM test_cases tc " +
+            "WHERE tc.run_id IN :runIds AND tc.status = 'FAILED'", nativeQuery = true)
+    List<Object[]> findFailedTests(@Param("runIds") Collection<Long> runIds);
+}
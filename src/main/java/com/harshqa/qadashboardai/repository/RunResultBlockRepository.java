@@ -0,0 +1,21 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.RunResultBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RunResultBlockRepository extends JpaRepository<RunResultBlock, Long> {
+
+    List<RunResultBlock> findAllByRunIdIn(Collection<Long> runIds);
+
+    @Modifying
+    @Query("DELETE FROM RunResultBlock b WHERE b.runId IN :runIds")
+    void deleteAllByRunIds(@Param("runIds") Collection<Long> runIds);
+}
@@ -0,0 +1,122 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.model.RunResultEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writer (and light-weight reader) for test_cases.
+ * TestCase uses IDENTITY ids, which disables Hibernate's JDBC batching (one INSERT per row).
+ * For ingestion we bypass the entity cascade and send the rows as JDBC batches instead.
+ * Runs inside the caller's JPA transaction (same connection).
+ */
+@Repository
+public class TestCaseJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO test_cases (run_id, test_definition_id, duration, status, failure_id) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TestCaseJdbcRepository(JdbcTemplate jdbcTemplate,
+                                  @Value("${qa.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertAll(Long runId, List<TestCase> testCases) {
+        if (testCases.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, testCases, batchSize, (ps, tc) -> {
+            ps.setLong(1, runId);
+            ps.setInt(2, tc.getTestDefinition().getId());
+            ps.setDouble(3, tc.getDuration());
+            ps.setString(4, tc.getStatus());
+            if (tc.getTestFailure() != null) {
+                ps.setLong(5, tc.getTestFailure().getId());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+        });
+    }
+
+    /**
+     * Rows of a run ordered by test definition id (the order of compact blocks), with the names joined.
+     * status / className are optional filters.
+     */
+    public List<RunResultEntry> findRunRows(Long runId, String status, String className, int limit) {
+        List<Object> args = new ArrayList<>();
+        String where = runFilter(runId, status, className, args);
+        args.add(limit);
+
+        return jdbcTemplate.query(
+                "SELECT tc.test_definition_id, d.class_name, d.test_name, tc.duration, tc.status, tc.failure_id " +
+                "FROM test_cases tc JOIN test_definitions d ON d.id = tc.test_definition_id " +
+                where + " ORDER BY tc.test_definition_id, tc.id LIMIT ?",
+                (rs, i) -> new RunResultEntry(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getDouble(4),
+                        rs.getString(5), rs.getObject(6) != null ? rs.getLong(6) : null),
+                args.toArray());
+    }
+
+    // All rows of a run ordered by test definition id, without names (run diffs)
+    public List<RunResultEntry> findRunResults(Long runId) {
+        return jdbcTemplate.query(
+                "SELECT test_definition_id, duration, status, failure_id FROM test_cases " +
+                "WHERE run_id = ? ORDER BY test_definition_id, id",
+                (rs, i) -> new RunResultEntry(rs.getInt(1), null, null, rs.getDouble(2),
+                        rs.getString(3), rs.getObject(4) != null ? rs.getLong(4) : null),
+                runId);
+    }
+
+    public long countRunRows(Long runId, String status, String className) {
+        List<Object> args = new ArrayList<>();
+        String where = runFilter(runId, status, className, args);
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM test_cases tc JOIN test_definitions d ON d.id = tc.test_definition_id " + where,
+                Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+
+    // failure id -> number of test cases of the run that failed with it
+    public Map<Long, Integer> countFailureOccurrences(Long runId, Collection<Long> failureIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (failureIds.isEmpty()) return counts;
+
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(
+                    "SELECT failure_id, COUNT(*) FROM test_cases WHERE run_id = ? AND failure_id = ANY(?) GROUP BY failure_id");
+            ps.setLong(1, runId);
+            ps.setArray(2, con.createArrayOf("bigint", failureIds.toArray()));
+            return ps;
+        }, rs -> {
+            counts.put(rs.getLong(1), rs.getInt(2));
+        });
+        return counts;
+    }
+
+    // Optional filters are appended only when set (no nullable parameters in the SQL)
+    private String runFilter(Long runId, String status, String className, List<Object> args) {
+        StringBuilder where = new StringBuilder("WHERE tc.run_id = ?");
+        args.add(runId);
+        if (status != null) {
+            where.append(" AND tc.status = ?");
+            args.add(status);
+        }
+        if (className != null) {
+            where.append(" AND d.class_name = ?");
+            args.add(className);
+        }
+        return where.toString();
+    }
+}
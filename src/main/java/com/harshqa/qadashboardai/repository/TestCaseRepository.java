@@ -1,7 +1,6 @@
 package com.harshqa.qadashboardai.repository;
 
 import com.harshqa.qadashboardai.entity.TestCase;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,34 +15,31 @@ public interface TestCaseRepository extends JpaRepository<TestCase, Long> {
     // Example: Find all flaky tests (we can add logic here later)
     List<TestCase> findByStatus(String status);
 
-    // We select the Failure Entity and the Count
-    @Query("SELECT tc.testFailure, COUNT(tc) FROM TestCase tc " +
-            "JOIN tc.testRun tr " +
-            "WHERE tc.testFailure IS NOT NULL " +
-            "AND tr.executionDate > :since " +
-            "AND tr.project.id = :projectId " +
-            "GROUP BY tc.testFailure " +
-            "ORDER BY COUNT(tc) DESC")
-    List<Object[]> findTopFailures(LocalDateTime since, @Param("projectId") Long projectId, Pageable pageable);
-
     /**
-     * Finds tests that have > 1 distinct status (e.g., both PASSED and FAILED)
-     * within the given timeframe.
+     * Failure occurrences per category, for the current period (after :since) and the one before (:prevSince - :since].
+     * Row: [category, currentCount, previousCount]. Category is null for failures not categorized yet.
      */
-    @Query("SELECT tc.testName, tc.className, COUNT(tc), " +
-            "SUM(CASE WHEN tc.status = 'FAILED' THEN 1 ELSE 0 END) " +
-            "FROM TestCase tc " +
-            "JOIN tc.testRun tr " +
-            "WHERE tr.executionDate > :since " +
+    @Query("SELECT f.category, " +
+            "SUM(CASE WHEN tr.executionDate > :since THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN tr.executionDate <= :since THEN 1 ELSE 0 END) " +
+            "FROM TestCase tc JOIN tc.testRun tr JOIN tc.testFailure f " +
+            "WHERE tr.executionDate > :prevSince " +
             "AND tr.project.id = :projectId " +
-            "GROUP BY tc.testName, tc.className " +
-            "HAVING COUNT(DISTINCT tc.status) > 1")
-    List<Object[]> findFlakyTests(LocalDateTime since, @Param("projectId") Long projectId);
+            "GROUP BY f.category")
+    List<Object[]> countFailuresByCategory(@Param("since") LocalDateTime since, @Param("prevSince") LocalDateTime prevSince,
+                                           @Param("projectId") Long projectId);
 
     // Count UNIQUE test cases that failed in the period
-    @Query("SELECT COUNT(DISTINCT CONCAT(tc.className, '.', tc.testName)) " +
+    @Query("SELECT COUNT(DISTINCT tc.testDefinition.id) " +
             "FROM TestCase tc JOIN tc.testRun tr " +
             "WHERE tr.executionDate > :since AND tc.status = 'FAILED'" +
             "AND tr.project.id = :projectId")
     Long countUniqueFailures(LocalDateTime since, @Param("projectId") Long projectId);
+
+    // Count distinct failures (fingerprints) that occurred in the period
+    @Query("SELECT COUNT(DISTINCT tc.testFailure.id) " +
+            "FROM TestCase tc JOIN tc.testRun tr " +
+            "WHERE tr.executionDate > :since AND tc.status = 'FAILED' " +
+            "AND tr.project.id = :projectId")
+    Long countUniqueFailureSignatures(LocalDateTime since, @Param("projectId") Long projectId);
 }
@@ -0,0 +1,53 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestDailyStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.Collection;
+
+/**
+ * Bulk upsert for test_daily_stats (one row per test of a run, sent as JDBC batches).
+ * If the test already has a row for that day, the counts are added and a flip is counted
+ * when the day's last status differs from the new first status.
+ * Callers must pass at most one row per (project, test, day).
+ */
+@Repository
+public class TestDailyStatsJdbcRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO test_daily_stats (project_id, day, test_definition_id, executions, failures, flips, first_status, last_status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (project_id, test_definition_id, day) DO UPDATE SET " +
+            "executions = test_daily_stats.executions + EXCLUDED.executions, " +
+            "failures = test_daily_stats.failures + EXCLUDED.failures, " +
+            "flips = test_daily_stats.flips + EXCLUDED.flips + " +
+            "  CASE WHEN test_daily_stats.last_status <> EXCLUDED.first_status THEN 1 ELSE 0 END, " +
+            "last_status = EXCLUDED.last_status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TestDailyStatsJdbcRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${qa.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void upsertAll(Collection<TestDailyStats> stats) {
+        if (stats.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, stats, batchSize, (ps, s) -> {
+            ps.setLong(1, s.getProjectId());
+            ps.setDate(2, Date.valueOf(s.getDay()));
+            ps.setInt(3, s.getTestDefinitionId());
+            ps.setInt(4, s.getExecutions());
+            ps.setInt(5, s.getFailures());
+            ps.setInt(6, s.getFlips());
+            ps.setString(7, s.getFirstStatus());
+            ps.setString(8, s.getLastStatus());
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TestDailyStatsRepository extends JpaRepository<TestDailyStats, Long> {
+
+    /**
+     * Flaky tests of a project since a day, with names and management state joined in the same query.
+     * 1. candidates: tests that both passed and failed in the window (usually a small subset)
+     * 2. flips = transitions inside each day + transitions between consecutive days (LAG over the days)
+     * 3. names / management are only joined for the candidates
+     * Row: [testName, className, executions, failures, flips, mgmtId, acknowledged, resolutionStatus, assignee]
+     */
+    @Query(value = "WITH window_stats AS ( " +
+            "  SELECT test_definition_id, day, executions, failures, flips, first_status, last_status " +
+            "  FROM test_daily_stats WHERE project_id = :projectId AND day > :after), " +
+            "candidates AS ( " +
+            "  SELECT test_definition_id FROM window_stats GROUP BY test_definition_id " +
+            "  HAVING SUM(failures) > 0 AND SUM(failures) < SUM(executions)), " +
+            "per_test AS ( " +
+            "  SELECT o.test_definition_id, SUM(o.executions) AS executions, SUM(o.failures) AS failures, " +
+            "    SUM(o.flips) + SUM(CASE WHEN o.prev_status IS NOT NULL AND o.prev_status <> o.first_status THEN 1 ELSE 0 END) AS flips " +
+            "  FROM (SELECT w.test_definition_id, w.executions, w.failures, w.flips, w.first_status, " +
+            "          LAG(w.last_status) OVER (PARTITION BY w.test_definition_id ORDER BY w.day) AS prev_status " +
+            "        FROM window_stats w JOIN candidates c ON c.test_definition_id = w.test_definition_id) o " +
+            "  GROUP BY o.test_definition_id) " +
+            "SELECT d.test_name, d.class_name, p.executions, p.failures, p.flips, " +
+            "  m.id, m.acknowledged, m.resolution_status, m.assignee " +
+            "FROM per_test p " +
+            "JOIN test_definitions d ON d.id = p.test_definition_id " +
+            "LEFT JOIN test_management m ON m.class_name = d.class_name AND m.test_name = d.test_name",
+            nativeQuery = true)
+    List<Object[]> findFlakyTests(@Param("projectId") Long projectId, @Param("after") LocalDate after);
+
+    @Modifying
+    @Query(value = "DELETE FROM test_daily_stats WHERE project_id = :projectId AND day = :day", nativeQuery = true)
+    void deleteDay(@Param("projectId") Long projectId, @Param("day") LocalDate day);
+
+    /**
+     * Rebuilds the stats of runs executed in [start, end) for days that have no stats yet.
+     * Executions are ordered by run date then row id, which is the order they were ingested in.
+     * Note: rerun history from merges is not in test_cases (the status is overwritten), so a rebuilt
+     * day only sees the final statuses.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO test_daily_stats (project_id, day, test_definition_id, executions, failures, flips, first_status, last_status) " +
+            "SELECT x.project_id, x.day, x.test_definition_id, COUNT(*), " +
+            "  SUM(CASE WHEN x.status = 'FAILED' THEN 1 ELSE 0 END), " +
+            "  SUM(CASE WHEN x.prev_status IS NOT NULL AND x.prev_status <> x.status THEN 1 ELSE 0 END), " +
+            "  MAX(CASE WHEN x.rn_first = 1 THEN x.status END), MAX(CASE WHEN x.rn_last = 1 THEN x.status END) " +
+            "FROM ( " +
+            "  SELECT tr.project_id, CAST(tr.execution_date AS DATE) AS day, tc.test_definition_id, tc.status, " +
+            "    LAG(tc.status) OVER w AS prev_status, " +
+            "    ROW_NUMBER() OVER w AS rn_first, " +
+            "    ROW_NUMBER() OVER (PARTITION BY CAST(tr.execution_date AS DATE), tc.test_definition_id " +
+            "      ORDER BY tr.execution_date DESC, tc.id DESC) AS rn_last " +
+            "  FROM test_cases tc JOIN test_runs tr ON tr.id = tc.run_id " +
+            "  WHERE tr.project_id = :projectId AND tr.execution_date >= :start AND tr.execution_date < :end " +
+            "  AND tc.status IN ('PASSED', 'FAILED') " +
+            "  AND NOT EXISTS (SELECT 1 FROM test_daily_stats s " +
+            "    WHERE s.project_id = tr.project_id AND s.day = CAST(tr.execution_date AS DATE)) " +
+            "  WINDOW w AS (PARTITION BY CAST(tr.execution_date AS DATE), tc.test_definition_id " +
+            "    ORDER BY tr.execution_date, tc.id) " +
+            ") x " +
+            "GROUP BY x.project_id, x.day, x.test_definition_id",
+            nativeQuery = true)
+    int rebuildMissing(@Param("projectId") Long projectId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,68 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.model.TestKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk lookup / insert for test_definitions.
+ * Names are sent as two parallel text arrays (unnest), so a chunk of thousands of tests is one statement.
+ */
+@Repository
+public class TestDefinitionJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO test_definitions (project_id, class_name, test_name) " +
+            "SELECT ?, u.c, u.t FROM unnest(?, ?) AS u(c, t) " +
+            "ON CONFLICT (project_id, class_name, test_name) DO NOTHING";
+
+    private static final String SELECT_SQL =
+            "SELECT d.id, d.class_name, d.test_name FROM test_definitions d " +
+            "JOIN unnest(?, ?) AS u(c, t) ON d.class_name = u.c AND d.test_name = u.t " +
+            "WHERE d.project_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TestDefinitionJdbcRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${qa.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public Map<TestKey, Integer> findIds(Long projectId, List<TestKey> keys) {
+        Map<TestKey, Integer> ids = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<TestKey> chunk = keys.subList(from, Math.min(from + batchSize, keys.size()));
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(SELECT_SQL);
+                ps.setArray(1, con.createArrayOf("text", chunk.stream().map(TestKey::className).toArray()));
+                ps.setArray(2, con.createArrayOf("text", chunk.stream().map(TestKey::testName).toArray()));
+                ps.setLong(3, projectId);
+                return ps;
+            }, rs -> {
+                ids.put(new TestKey(projectId, rs.getString(2), rs.getString(3)), rs.getInt(1));
+            });
+        }
+        return ids;
+    }
+
+    // ON CONFLICT makes it safe when two uploads race on the same new test (both then read the same id back)
+    public void insertIgnoringDuplicates(Long projectId, List<TestKey> keys) {
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<TestKey> chunk = keys.subList(from, Math.min(from + batchSize, keys.size()));
+            jdbcTemplate.update(con -> {
+                var ps = con.prepareStatement(INSERT_SQL);
+                ps.setLong(1, projectId);
+                ps.setArray(2, con.createArrayOf("text", chunk.stream().map(TestKey::className).toArray()));
+                ps.setArray(3, con.createArrayOf("text", chunk.stream().map(TestKey::testName).toArray()));
+                return ps;
+            });
+        }
+    }
+}
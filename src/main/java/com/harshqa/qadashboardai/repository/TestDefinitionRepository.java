@@ -0,0 +1,20 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TestDefinitionRepository extends JpaRepository<TestDefinition, Integer> {
+
+    // All test ids of a class (filters over compact result blocks, which only hold ids)
+    @Query("SELECT d.id FROM TestDefinition d WHERE d.projectId = :projectId AND d.className = :className")
+    List<Integer> findIdsByClassName(@Param("projectId") Long projectId, @Param("className") String className);
+
+    Optional<TestDefinition> findByProjectIdAndClassNameAndTestName(Long projectId, String className, String testName);
+}
@@ -0,0 +1,80 @@
+package com.harshqa.qadashboardai.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Bulk EWMA update for test_duration_baselines (one row per test of a run, sent as JDBC batches).
+ * The update runs in the DB (SET expressions see the old row), so concurrent uploads cannot lose samples.
+ *
+ *   alpha     = max(configured alpha, 1 / (samples + 1))  -> plain running mean/variance while a test is new
+ *   mean'     = mean + alpha * (x - mean)
+ *   variance' = (1 - alpha) * (variance + alpha * (x - mean)^2)
+ *   recent'   = recent + recentAlpha * (x - recent)
+ */
+@Repository
+public class TestDurationBaselineJdbcRepository {
+
+    // ?s after VALUES: alpha (3x, one per use) and recentAlpha
+    private static final String UPSERT_SQL =
+            "INSERT INTO test_duration_baselines (test_definition_id, project_id, samples, mean, variance, recent_mean, " +
+            "  last_duration, last_run_id, updated_at) " +
+            "VALUES (?, ?, 1, ?, 0, ?, ?, ?, ?) " +
+            "ON CONFLICT (test_definition_id) DO UPDATE SET " +
+            "samples = test_duration_baselines.samples + 1, " +
+            "mean = test_duration_baselines.mean " +
+            "  + GREATEST(?, 1.0 / (test_duration_baselines.samples + 1)) " +
+            "  * (EXCLUDED.last_duration - test_duration_baselines.mean), " +
+            "variance = (1 - GREATEST(?, 1.0 / (test_duration_baselines.samples + 1))) " +
+            "  * (test_duration_baselines.variance + GREATEST(?, 1.0 / (test_duration_baselines.samples + 1)) " +
+            "     * (EXCLUDED.last_duration - test_duration_baselines.mean) " +
+            "     * (EXCLUDED.last_duration - test_duration_baselines.mean)), " +
+            "recent_mean = test_duration_baselines.recent_mean " +
+            "  + ? * (EXCLUDED.last_duration - test_duration_baselines.recent_mean), " +
+            "last_duration = EXCLUDED.last_duration, " +
+            "last_run_id = EXCLUDED.last_run_id, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final double alpha;
+    private final double recentAlpha;
+
+    public TestDurationBaselineJdbcRepository(JdbcTemplate jdbcTemplate,
+                                              @Value("${qa.ingest.batch-size:1000}") int batchSize,
+                                              @Value("${qa.analytics.duration-baseline.alpha:0.05}") double alpha,
+                                              @Value("${qa.analytics.duration-baseline.recent-alpha:0.3}") double recentAlpha) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.alpha = alpha;
+        this.recentAlpha = recentAlpha;
+    }
+
+    // durations: test definition id -> the run's duration of that test (one sample per test and run)
+    public void recordSamples(Long projectId, Long runId, LocalDateTime at, Map<Integer, Double> durations) {
+        if (durations.isEmpty()) return;
+
+        Timestamp timestamp = Timestamp.valueOf(at);
+        jdbcTemplate.batchUpdate(UPSERT_SQL,
+                new ArrayList<>(durations.entrySet()), batchSize, (ps, e) -> {
+                    double x = e.getValue();
+                    ps.setInt(1, e.getKey());
+                    ps.setLong(2, projectId);
+                    ps.setDouble(3, x);
+                    ps.setDouble(4, x);
+                    ps.setDouble(5, x);
+                    ps.setLong(6, runId);
+                    ps.setTimestamp(7, timestamp);
+                    ps.setDouble(8, alpha);
+                    ps.setDouble(9, alpha);
+                    ps.setDouble(10, alpha);
+                    ps.setDouble(11, recentAlpha);
+                });
+    }
+}
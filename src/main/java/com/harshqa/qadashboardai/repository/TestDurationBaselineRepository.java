@@ -0,0 +1,36 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestDurationBaseline;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TestDurationBaselineRepository extends JpaRepository<TestDurationBaseline, Integer> {
+
+    /**
+     * Tests of a project whose recent duration is significantly above their baseline, worst first.
+     * Significant = at least :minIncrease (fraction) slower AND :zThreshold standard deviations above the mean
+     * (the deviation has a floor of :minStdDev seconds, so a very stable test does not alarm on noise).
+     * Only tests executed since :since with at least :minSamples samples are considered.
+     * Row: [className, testName, samples, mean, variance, recentMean, lastDuration, updatedAt]
+     */
+    @Query(value = "SELECT d.class_name, d.test_name, b.samples, b.mean, b.variance, b.recent_mean, b.last_duration, b.updated_at " +
+            "FROM test_duration_baselines b " +
+            "JOIN test_definitions d ON d.id = b.test_definition_id " +
+            "WHERE b.project_id = :projectId " +
+            "AND b.updated_at > :since " +
+            "AND b.samples >= :minSamples " +
+            "AND b.recent_mean >= b.mean * (1 + :minIncrease) " +
+            "AND b.recent_mean - b.mean >= :zThreshold * GREATEST(SQRT(b.variance), :minStdDev) " +
+            "ORDER BY b.recent_mean - b.mean DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> findRegressions(@Param("projectId") Long projectId, @Param("since") LocalDateTime since,
+                                   @Param("minSamples") long minSamples, @Param("minIncrease") double minIncrease,
+                                   @Param("zThreshold") double zThreshold, @Param("minStdDev") double minStdDev,
+                                   @Param("limit") int limit);
+}
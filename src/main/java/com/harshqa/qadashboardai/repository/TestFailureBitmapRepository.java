@@ -0,0 +1,29 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestFailureBitmap;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TestFailureBitmapRepository extends JpaRepository<TestFailureBitmap, Integer> {
+
+    // Creates an empty row for each test that has none yet (so the rows can be locked below)
+    @Modifying
+    @Query(value = "INSERT INTO test_failure_bitmaps (test_definition_id, project_id, failed_runs, data) " +
+            "SELECT d.id, :projectId, 0, :empty FROM test_definitions d WHERE d.id IN :ids " +
+            "ON CONFLICT (test_definition_id) DO NOTHING", nativeQuery = true)
+    void insertEmptyIfMissing(@Param("projectId") Long projectId, @Param("ids") Collection<Integer> ids, @Param("empty") byte[] empty);
+
+    // Row locks for the read-modify-write at ingest (two uploads failing the same test must not lose a run)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM TestFailureBitmap b WHERE b.testDefinitionId IN :ids ORDER BY b.testDefinitionId")
+    List<TestFailureBitmap> lockAllById(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,67 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestFailure;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writer for test_failures.
+ * New fingerprints of a report are inserted as one JDBC batch. ON CONFLICT makes it safe when
+ * two uploads race on the same new failure (the loser simply reads the winner's row back).
+ */
+@Repository
+public class TestFailureJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO test_failures (failure_hash, message, stack_trace, category, fingerprint_version) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (failure_hash) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TestFailureJdbcRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${qa.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertIgnoringDuplicates(List<TestFailure> failures) {
+        if (failures.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, failures, batchSize, (ps, f) -> {
+            ps.setString(1, f.getFailureHash());
+            ps.setString(2, f.getMessage());
+            ps.setString(3, f.getStackTrace());
+            ps.setString(4, f.getCategory());
+            ps.setObject(5, f.getFingerprintVersion(), Types.INTEGER);
+        });
+    }
+
+    // Backfill helpers: failures stored before categories existed
+
+    public Map<Long, String> findUncategorized(int limit) {
+        Map<Long, String> idToMessage = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, message FROM test_failures WHERE category IS NULL ORDER BY id LIMIT ?",
+                rs -> {
+                    idToMessage.put(rs.getLong(1), rs.getString(2));
+                }, limit);
+        return idToMessage;
+    }
+
+    public void updateCategories(Map<Long, String> idToCategory) {
+        if (idToCategory.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate("UPDATE test_failures SET category = ? WHERE id = ?",
+                new ArrayList<>(idToCategory.entrySet()), batchSize, (ps, e) -> {
+                    ps.setString(1, e.getValue());
+                    ps.setLong(2, e.getKey());
+                });
+    }
+}
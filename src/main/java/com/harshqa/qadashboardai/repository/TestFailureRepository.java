@@ -4,10 +4,15 @@ import com.harshqa.qadashboardai.entity.TestFailure;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TestFailureRepository extends JpaRepository<TestFailure, Long> {
     // Fast lookup by fingerprint
     Optional<TestFailure> findByFailureHash(String failureHash);
+
+    // Bulk lookup: resolve all fingerprints of a report in one query
+    List<TestFailure> findAllByFailureHashIn(Collection<String> failureHashes);
 }
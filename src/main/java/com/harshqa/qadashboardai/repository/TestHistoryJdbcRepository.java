@@ -0,0 +1,85 @@
+package com.harshqa.qadashboardai.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writes for test_histories.
+ * Appends are a bytea concatenation in SQL (no read of the existing history), compaction rewrites
+ * the few rows whose tail got long, under a row lock so no concurrent append is lost.
+ */
+@Repository
+public class TestHistoryJdbcRepository {
+
+    private static final String APPEND_SQL =
+            "INSERT INTO test_histories (test_definition_id, project_id, encoding_version, entry_count, data, " +
+            "  tail, tail_count, first_run_id, updated_at) " +
+            "VALUES (?, ?, ?, 0, NULL, ?, 1, ?, ?) " +
+            "ON CONFLICT (test_definition_id) DO UPDATE SET " +
+            "tail = test_histories.tail || EXCLUDED.tail, " +
+            "tail_count = test_histories.tail_count + 1, " +
+            "first_run_id = LEAST(test_histories.first_run_id, EXCLUDED.first_run_id), " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TestHistoryJdbcRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${qa.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // records: test definition id -> encoded tail record of this run
+    public void append(Long projectId, Long runId, int version, Map<Integer, byte[]> records) {
+        if (records.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(APPEND_SQL, new ArrayList<>(records.entrySet()), batchSize, (ps, e) -> {
+            ps.setInt(1, e.getKey());
+            ps.setLong(2, projectId);
+            ps.setInt(3, version);
+            ps.setBytes(4, e.getValue());
+            ps.setLong(5, runId);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    /**
+     * Locks and returns the histories (among the given tests) whose tail reached minTail records.
+     * Row: [testDefinitionId, data, tail]
+     */
+    public List<Object[]> lockForCompaction(Collection<Integer> definitionIds, int minTail) {
+        if (definitionIds.isEmpty()) return List.of();
+        return jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(
+                    "SELECT test_definition_id, data, tail FROM test_histories " +
+                    "WHERE test_definition_id = ANY(?) AND tail_count >= ? ORDER BY test_definition_id FOR UPDATE");
+            ps.setArray(1, con.createArrayOf("integer", definitionIds.toArray()));
+            ps.setInt(2, minTail);
+            return ps;
+        }, (rs, i) -> new Object[]{rs.getInt(1), rs.getBytes(2), rs.getBytes(3)});
+    }
+
+    // rows: {data, entryCount, version, testDefinitionId}
+    public void saveCompacted(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+                "UPDATE test_histories SET data = ?, entry_count = ?, encoding_version = ?, " +
+                "tail = ''::bytea, tail_count = 0 WHERE test_definition_id = ?",
+                rows, batchSize, (ps, row) -> {
+                    ps.setBytes(1, (byte[]) row[0]);
+                    ps.setInt(2, (Integer) row[1]);
+                    ps.setInt(3, (Integer) row[2]);
+                    ps.setInt(4, (Integer) row[3]);
+                });
+    }
+}
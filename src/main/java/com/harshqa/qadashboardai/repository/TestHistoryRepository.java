@@ -0,0 +1,27 @@
+package com.harshqa.qadashboardai.repository;
+
+import com.harshqa.qadashboardai.entity.TestHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TestHistoryRepository extends JpaRepository<TestHistory, Integer> {
+
+    // Backfill: oldest run recorded in the project's histories (null before the first run)
+    @Query("SELECT MIN(h.firstRunId) FROM TestHistory h WHERE h.projectId = :projectId")
+    Long findOldestRecordedRunId(@Param("projectId") Long projectId);
+
+    // Backfill: runs of the project before the given one, newest first
+    @Query(value = "SELECT tr.id FROM test_runs tr WHERE tr.project_id = :projectId AND tr.id < :before " +
+            "ORDER BY tr.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findRunIdsBefore(@Param("projectId") Long projectId, @Param("before") Long before, @Param("limit") int limit);
+
+    // Histories keep entries of deleted runs: readers drop them with this lookup
+    @Query("SELECT tr.id FROM TestRun tr WHERE tr.id IN :runIds")
+    List<Long> findExistingRunIds(@Param("runIds") Collection<Long> runIds);
+}
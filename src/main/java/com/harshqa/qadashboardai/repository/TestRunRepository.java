@@ -2,24 +2,42 @@ package com.harshqa.qadashboardai.repository;
 
 import com.harshqa.qadashboardai.entity.Project;
 import com.harshqa.qadashboardai.entity.TestRun;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TestRunRepository extends JpaRepository<TestRun, Long> {
 
-    // Dashboard Widget (Latest 5 for a Project)
-    List<TestRun> findTop5ByProjectOrderByExecutionDateDesc(Project project);
-
-    // History Page (Filter by Date for a Project)
-    List<TestRun> findAllByProjectAndExecutionDateAfterOrderByExecutionDateDesc(Project project, LocalDateTime date);
-
-    // Get All for a Project
-    List<TestRun> findAllByProject(Project project, Sort sort);
+    String SUMMARY_SELECT = "SELECT r.id, r.executionDate, r.totalDuration, r.totalTests, r.passCount, r.failCount, r.skipCount, " +
+            "CASE WHEN r.aiAnalysis IS NULL THEN false ELSE true END FROM TestRun r ";
+
+    /**
+     * Run summaries (no test cases, no AI text) newest first, keyset-paginated on (executionDate, id).
+     * First page: runs after :since. Next pages: runs strictly before the cursor (the last item of the previous page).
+     * Row: [id, executionDate, totalDuration, totalTests, passCount, failCount, skipCount, hasAiAnalysis]
+     */
+    @Query(SUMMARY_SELECT +
+            "WHERE r.project.id = :projectId AND r.executionDate > :since " +
+            "ORDER BY r.executionDate DESC, r.id DESC")
+    List<Object[]> findSummaries(@Param("projectId") Long projectId, @Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+            "WHERE r.project.id = :projectId AND r.executionDate > :since " +
+            "AND (r.executionDate < :cursorDate OR (r.executionDate = :cursorDate AND r.id < :cursorId)) " +
+            "ORDER BY r.executionDate DESC, r.id DESC")
+    List<Object[]> findSummariesBefore(@Param("projectId") Long projectId, @Param("since") LocalDateTime since,
+                                       @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") Long cursorId,
+                                       Pageable pageable);
+
+    // Latest run in a window (Dashboard "latest pass rate")
+    Optional<TestRun> findFirstByProjectAndExecutionDateAfterOrderByExecutionDateDesc(Project project, LocalDateTime date);
 
     // Trend Calculation (Previous Period for a Project)
     List<TestRun> findAllByProjectAndExecutionDateBetween(Project project, LocalDateTime start, LocalDateTime end);
@@ -0,0 +1,30 @@
+package com.harshqa.qadashboardai.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Works out which project an upload belongs to.
+ * API Key callers are locked to the key's project; humans pass it as a parameter.
+ */
+public final class ProjectIdResolver {
+
+    private ProjectIdResolver() {
+    }
+
+    public static Long resolve(Long requestedProjectId) {
+        Long finalProjectId = requestedProjectId;
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        // If authenticated via API Key, the "credentials" field holds the Project ID (set in Filter)
+        if (auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_SYSTEM"))) {
+            finalProjectId = (Long) auth.getCredentials();
+        }
+
+        if (finalProjectId == null) {
+            throw new RuntimeException("Project ID is required (either via parameter or API Key)");
+        }
+        return finalProjectId;
+    }
+}
@@ -0,0 +1,69 @@
+package com.harshqa.qadashboardai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.harshqa.qadashboardai.dto.CacheStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Response cache in front of the DashboardService read methods.
+ * Dashboard data only changes when reports are ingested, so entries live until:
+ *  - the project gets new data (invalidated after the ingest transaction commits), or
+ *  - TTL / max size eviction kicks in.
+ */
+@Component
+public class DashboardCache {
+
+    // e.g. (1, "trends", [7])
+    private record CacheKey(Long projectId, String view, List<Object> params) {
+    }
+
+    private final Cache<CacheKey, Object> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public DashboardCache(@Value("${qa.dashboard.cache.max-size:1000}") long maxSize,
+                          @Value("${qa.dashboard.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long projectId, String view, Supplier<T> loader, Object... params) {
+        CacheKey key = new CacheKey(projectId, view, List.of(params));
+        return (T) cache.get(key, k -> loader.get());
+    }
+
+    // Runs after the ingest/delete transaction commits, so readers never re-cache pre-commit data
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DashboardDataChangedEvent event) {
+        if (event.getProjectId() == null) {
+            cache.invalidateAll();
+        } else {
+            cache.asMap().keySet().removeIf(key -> key.projectId().equals(event.getProjectId()));
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public CacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsDto.builder()
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(Math.round(stats.hitRate() * 1000.0) / 1000.0)
+                .evictionCount(stats.evictionCount())
+                .invalidationCount(invalidations.get())
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.harshqa.qadashboardai.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when data behind the dashboard changes (run ingested, merged or deleted, flaky status updated).
+ * projectId == null means "could affect every project".
+ */
+@Data
+@AllArgsConstructor
+public class DashboardDataChangedEvent {
+    private Long projectId;
+}
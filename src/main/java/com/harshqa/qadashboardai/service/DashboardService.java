@@ -2,11 +2,19 @@ package com.harshqa.qadashboardai.service;
 
 import com.harshqa.qadashboardai.dto.*;
 import com.harshqa.qadashboardai.entity.*;
+import com.harshqa.qadashboardai.repository.DailyProjectRollupRepository;
+import com.harshqa.qadashboardai.repository.FailureDailyCountRepository;
+import com.harshqa.qadashboardai.repository.FailureSignatureRepository;
 import com.harshqa.qadashboardai.repository.ProjectRepository;
+import com.harshqa.qadashboardai.repository.RunDurationHistogramRepository;
 import com.harshqa.qadashboardai.repository.TestCaseRepository;
+import com.harshqa.qadashboardai.repository.TestDailyStatsRepository;
+import com.harshqa.qadashboardai.repository.TestDurationBaselineRepository;
+import com.harshqa.qadashboardai.repository.TestFailureRepository;
 import com.harshqa.qadashboardai.repository.TestManagementRepository;
 import com.harshqa.qadashboardai.repository.TestRunRepository;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,14 +32,51 @@ public class DashboardService {
     private final TestCaseRepository testCaseRepository;
     private final TestManagementRepository testManagementRepository;
     private final ProjectRepository projectRepository;
+    private final DailyProjectRollupRepository rollupRepository;
+    private final TestDailyStatsRepository testStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FailureClassifier failureClassifier;
+    private final FailureSignatureRepository failureSignatureRepository;
+    private final TestFailureRepository testFailureRepository;
+    private final RunDurationHistogramRepository histogramRepository;
+    private final TestDurationBaselineRepository durationBaselineRepository;
+    private final FailureSketchService failureSketchService;
+    private final FailureDailyCountRepository failureCountRepository;
+    private final long regressionMinSamples;
+    private final double regressionMinStdDev;
 
     public DashboardService(TestRunRepository testRunRepository,
                             TestCaseRepository testCaseRepository,
-                            TestManagementRepository testManagementRepository, ProjectRepository projectRepository) {
+                            TestManagementRepository testManagementRepository, ProjectRepository projectRepository,
+                            DailyProjectRollupRepository rollupRepository, TestDailyStatsRepository testStatsRepository,
+                            ApplicationEventPublisher eventPublisher, FailureClassifier failureClassifier,
+                            FailureSignatureRepository failureSignatureRepository, TestFailureRepository testFailureRepository,
+                            RunDurationHistogramRepository histogramRepository,
+                            TestDurationBaselineRepository durationBaselineRepository, FailureSketchService failureSketchService,
+                            FailureDailyCountRepository failureCountRepository,
+                            @Value("${qa.analytics.duration-baseline.min-samples:10}") long regressionMinSamples,
+                            @Value("${qa.analytics.duration-baseline.min-stddev-seconds:0.05}") double regressionMinStdDev) {
         this.testRunRepository = testRunRepository;
         this.testCaseRepository = testCaseRepository;
         this.testManagementRepository = testManagementRepository;
         this.projectRepository = projectRepository;
+        this.rollupRepository = rollupRepository;
+        this.testStatsRepository = testStatsRepository;
+        this.eventPublisher = eventPublisher;
+        this.failureClassifier = failureClassifier;
+        this.failureSignatureRepository = failureSignatureRepository;
+        this.testFailureRepository = testFailureRepository;
+        this.histogramRepository = histogramRepository;
+        this.durationBaselineRepository = durationBaselineRepository;
+        this.failureSketchService = failureSketchService;
+        this.failureCountRepository = failureCountRepository;
+        this.regressionMinSamples = regressionMinSamples;
+        this.regressionMinStdDev = regressionMinStdDev;
+    }
+
+    // Native queries return DATE columns as java.sql.Date
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) value;
     }
 
     private Project getProject(Long projectId) {
@@ -39,25 +84,41 @@ public class DashboardService {
                 .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
     }
 
+    /**
+     * Trends + metrics are read from daily_project_rollup (one row per day, maintained at ingest),
+     * so the cost depends on the number of days, not on the number of runs or test cases.
+     * Windows are aligned to whole days: "last 7 days" = today and the 6 days before.
+     *
+     * @param exact false -> unique failure counts are estimated from the daily HyperLogLog sketches (~2% error),
+     *              true  -> counted exactly from test_cases (slower, for verification)
+     */
     @Transactional(readOnly = true)
-    public TrendsResponse getTrendAnalysis(int days, Long projectId) {
+    public TrendsResponse getTrendAnalysis(int days, Long projectId, boolean exact) {
         Project project = getProject(projectId);
         // Calculate the cutoff date
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime cutoff = now.minusDays(days);
-        LocalDateTime prevCutoff = now.minusDays(days * 2L);
+        LocalDate cutoffDay = cutoff.toLocalDate();
+        LocalDate prevCutoffDay = now.minusDays(days * 2L).toLocalDate();
+
+        // Current Period (one rollup per day)
+        List<DailyProjectRollup> rollups = rollupRepository.findAllByProjectIdAndDayAfterOrderByDayAsc(projectId, cutoffDay);
 
-        // Fetch Current Period Runs for Project
-        List<TestRun> runs = testRunRepository.findAllByProjectAndExecutionDateAfterOrderByExecutionDateDesc(project, cutoff);
+        // Previous Period (For trend calculation)
+        List<DailyProjectRollup> prevRollups = rollupRepository.findAllByProjectIdAndDayAfterAndDayLessThanEqual(projectId, prevCutoffDay, cutoffDay);
 
-        // Fetch Previous Period Runs for Project (For trend calculation)
-        List<TestRun> prevRuns = testRunRepository.findAllByProjectAndExecutionDateBetween(project, prevCutoff, cutoff);
+        // Duration histograms of the window, merged per day (a few hundred bytes per run)
+        Map<LocalDate, DurationHistogram> histograms = new HashMap<>();
+        for (RunDurationHistogram h : histogramRepository.findAllByProjectIdAndDayAfter(projectId, cutoffDay)) {
+            histograms.computeIfAbsent(h.getDay(), d -> new DurationHistogram()).merge(DurationHistogram.fromBytes(h.getData()));
+        }
 
         // Calculate Daily Trends (The List)
-        List<TrendDto> dailyTrends = calculateDailyTrends(runs);
+        List<TrendDto> dailyTrends = calculateDailyTrends(rollups, histograms);
 
         // 4. Calculate Top Level Metrics
-        DashboardMetricsDto metrics = calculateDashboardMetrics(runs, prevRuns, cutoff, projectId);
+        DashboardMetricsDto metrics = calculateDashboardMetrics(project, rollups, prevRollups, histograms.values(),
+                cutoffDay, projectId, exact);
 
         return TrendsResponse.builder()
                 .metrics(metrics)
@@ -65,86 +126,80 @@ public class DashboardService {
                 .build();
     }
 
-    private List<TrendDto> calculateDailyTrends(List<TestRun> runs) {
-        Map<LocalDate, List<TestRun>> groupedByDate = runs.stream()
-                .collect(Collectors.groupingBy(run -> run.getExecutionDate().toLocalDate()));
-
-        return groupedByDate.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> {
-                    LocalDate date = entry.getKey();
-                    List<TestRun> dailyRuns = entry.getValue();
-
-                    int totalTests = dailyRuns.stream().mapToInt(TestRun::getTotalTests).sum();
-                    int passCount = dailyRuns.stream().mapToInt(TestRun::getPassCount).sum();
-                    int failCount = dailyRuns.stream().mapToInt(TestRun::getFailCount).sum();
-                    int skipCount = dailyRuns.stream().mapToInt(TestRun::getSkipCount).sum();
-
-                    // Execution times: Aggregate metrics from INDIVIDUAL TEST CASES, not the Suite Total
-                    DoubleSummaryStatistics stats = dailyRuns.stream()
-                            .flatMap(run -> run.getTestCases().stream()) // Drill down to test cases
-                            .filter(tc -> !"SKIPPED".equalsIgnoreCase(tc.getStatus()))
-                            .mapToDouble(TestCase::getDuration)          // Get individual durations
-                            .summaryStatistics();
-
-                    double passRate = totalTests > 0 ? (double) passCount / (totalTests-skipCount) * 100 : 0;
-
-                    // Handle case where no tests exist to avoid Infinity/-Infinity
-                    double avg = stats.getCount() > 0 ? stats.getAverage() : 0.0;
-                    double max = stats.getCount() > 0 ? stats.getMax() : 0.0;
-                    double min = stats.getCount() > 0 ? stats.getMin() : 0.0;
+    private List<TrendDto> calculateDailyTrends(List<DailyProjectRollup> rollups, Map<LocalDate, DurationHistogram> histograms) {
+        return rollups.stream()
+                .map(day -> {
+                    // Execution times: aggregated from INDIVIDUAL TEST CASES at ingest, not the Suite Total
+                    double avg = day.getDurationCount() > 0 ? day.getDurationSum() / day.getDurationCount() : 0.0;
+                    double max = day.getDurationMax() != null ? day.getDurationMax() : 0.0;
+                    double min = day.getDurationMin() != null ? day.getDurationMin() : 0.0;
+                    DurationHistogram histogram = histograms.getOrDefault(day.getDay(), new DurationHistogram());
 
                     return TrendDto.builder()
-                            .date(date.format(DateTimeFormatter.ISO_LOCAL_DATE))
-                            .totalTests(totalTests)
-                            .passCount(passCount)
-                            .failCount(failCount)
-                            .passRate(Math.round(passRate * 10.0) / 10.0)
+                            .date(day.getDay().format(DateTimeFormatter.ISO_LOCAL_DATE))
+                            .totalTests((int) day.getTotalTests())
+                            .passCount((int) day.getPassCount())
+                            .failCount((int) day.getFailCount())
+                            .passRate(Math.round(day.getPassRate() * 10.0) / 10.0)
                             .avgDuration(Math.round(avg * 100.0) / 100.0)
                             .maxDuration(Math.round(max * 100.0) / 100.0)
                             .minDuration(Math.round(min * 100.0) / 100.0)
+                            .p50Duration(Math.round(histogram.percentile(50) * 100.0) / 100.0)
+                            .p90Duration(Math.round(histogram.percentile(90) * 100.0) / 100.0)
+                            .p99Duration(Math.round(histogram.percentile(99) * 100.0) / 100.0)
                             .build();
                 })
                 .collect(Collectors.toList());
     }
 
-    private DashboardMetricsDto calculateDashboardMetrics(List<TestRun> currentRuns, List<TestRun> prevRuns, LocalDateTime cutoff, Long projectId) {
+    private DashboardMetricsDto calculateDashboardMetrics(Project project, List<DailyProjectRollup> current, List<DailyProjectRollup> previous,
+                                                          Collection<DurationHistogram> dayHistograms, LocalDate cutoffDay,
+                                                          Long projectId, boolean exact) {
+        LocalDateTime windowStart = cutoffDay.plusDays(1).atStartOfDay();
+
         // A. Total Runs
-        int totalRuns = currentRuns.size();
+        int totalRuns = current.stream().mapToInt(DailyProjectRollup::getRunCount).sum();
 
         // B. Avg Pass Rate (Weighted by tests per run)
-        long totalTests = currentRuns.stream().mapToLong(TestRun::getTotalTests).sum();
-        long totalPass = currentRuns.stream().mapToLong(TestRun::getPassCount).sum();
-        long totalFail = currentRuns.stream().mapToLong(TestRun::getFailCount).sum();
-        long totalSkip = currentRuns.stream().mapToLong(TestRun::getSkipCount).sum();
+        long totalTests = current.stream().mapToLong(DailyProjectRollup::getTotalTests).sum();
+        long totalPass = current.stream().mapToLong(DailyProjectRollup::getPassCount).sum();
+        long totalSkip = current.stream().mapToLong(DailyProjectRollup::getSkipCount).sum();
         double avgPassRate = totalTests > 0 ? (double) totalPass / (totalTests-totalSkip) * 100 : 0.0;
 
-        // C. Latest Pass Rate
-        double latestPassRate = 0.0;
-        if (!currentRuns.isEmpty()) {
-            TestRun latest = currentRuns.getFirst(); // Already sorted DESC
-            latestPassRate = latest.getTotalTests() > 0
-                    ? (double) latest.getPassCount() / (latest.getTotalTests()-latest.getSkipCount()) * 100
-                    : 0.0;
-        }
+        // C. Latest Pass Rate (single row lookup)
+        double latestPassRate = testRunRepository.findFirstByProjectAndExecutionDateAfterOrderByExecutionDateDesc(project, windowStart)
+                .map(latest -> latest.getTotalTests() > 0
+                        ? (double) latest.getPassCount() / (latest.getTotalTests()-latest.getSkipCount()) * 100
+                        : 0.0)
+                .orElse(0.0);
 
         // D. Pass Rate Trend (Current vs Previous)
-        long prevTotalTests = prevRuns.stream().mapToLong(TestRun::getTotalTests).sum();
-        long prevTotalPass = prevRuns.stream().mapToLong(TestRun::getPassCount).sum();
+        long prevTotalTests = previous.stream().mapToLong(DailyProjectRollup::getTotalTests).sum();
+        long prevTotalPass = previous.stream().mapToLong(DailyProjectRollup::getPassCount).sum();
         double prevPassRate = prevTotalTests > 0 ? (double) prevTotalPass / prevTotalTests * 100 : 0.0;
 
         double trend = avgPassRate - prevPassRate; // Positive = Good, Negative = Bad
 
-        // E. Unique Failures
-        long uniqueFailures = testCaseRepository.countUniqueFailures(cutoff, projectId);
+        // E. Unique Failures (failing tests) and Unique Failure Signatures
+        long uniqueFailures;
+        long uniqueSignatures;
+        if (exact) {
+            uniqueFailures = testCaseRepository.countUniqueFailures(windowStart, projectId);
+            uniqueSignatures = testCaseRepository.countUniqueFailureSignatures(windowStart, projectId);
+        } else {
+            long[] estimates = failureSketchService.estimateDistinct(projectId, cutoffDay);
+            uniqueFailures = estimates[0];
+            uniqueSignatures = estimates[1];
+        }
 
         // F. Avg Execution Time (Across ALL tests in current period)
-        DoubleSummaryStatistics execStats = currentRuns.stream()
-                .flatMap(run -> run.getTestCases().stream())
-                .filter(tc -> !"SKIPPED".equalsIgnoreCase(tc.getStatus()))
-                .mapToDouble(TestCase::getDuration)
-                .summaryStatistics();
-        double avgExecTime = execStats.getCount() > 0 ? execStats.getAverage() : 0.0;
+        double durationSum = current.stream().mapToDouble(DailyProjectRollup::getDurationSum).sum();
+        long durationCount = current.stream().mapToLong(DailyProjectRollup::getDurationCount).sum();
+        double avgExecTime = durationCount > 0 ? durationSum / durationCount : 0.0;
+
+        // G. P90 Execution Time (day histograms merged into one)
+        DurationHistogram window = new DurationHistogram();
+        dayHistograms.forEach(window::merge);
 
         return DashboardMetricsDto.builder()
                 .totalRuns(totalRuns)
@@ -152,48 +207,168 @@ public class DashboardService {
                 .latestPassRate(Math.round(latestPassRate * 10.0) / 10.0)
                 .passRateTrend(Math.round(trend * 10.0) / 10.0)
                 .totalUniqueFailures(uniqueFailures)
+                .uniqueFailureSignatures(uniqueSignatures)
+                .uniqueCountsExact(exact)
                 .avgExecutionTime(Math.round(avgExecTime * 100.0) / 100.0)
+                .p90ExecutionTime(Math.round(window.percentile(90) * 100.0) / 100.0)
                 .build();
     }
 
-    public List<FailureStatDto> getTopFailures(int limit, int days, Long projectId) {
-        // Calculate Cutoff
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+    public List<FailureStatDto> getTopFailures(int limit, int days, Long projectId, boolean clustered) {
+        if (clustered) {
+            // One entry per near-duplicate cluster, shown through its most frequent failure
+            return getFailureClusters(limit, days, projectId).stream()
+                    .map(cluster -> FailureStatDto.builder()
+                            .failureId(cluster.getRepresentativeFailureId())
+                            .hash(cluster.getRepresentativeHash())
+                            .errorMessage(cluster.getRepresentativeMessage())
+                            .count(cluster.getOccurrenceCount())
+                            .clusterSize(cluster.getFailureCount())
+                            .build())
+                    .collect(Collectors.toList());
+        }
+
+        // Window aligned to whole days, like the trends
+        LocalDate cutoffDay = LocalDate.now().minusDays(days);
 
-        // Ask repository for the top 'limit' items within cutoff period
-        List<Object[]> results = testCaseRepository.findTopFailures(cutoff, projectId, PageRequest.of(0, limit));
+        // Top 'limit' failures from the daily counters (maintained at ingest), then their details in one batch
+        List<Object[]> results = failureCountRepository.findTopFailures(projectId, cutoffDay, limit);
+        if (results.isEmpty()) return new ArrayList<>();
+
+        List<Long> failureIds = results.stream().map(row -> ((Number) row[0]).longValue()).toList();
+        Map<Long, TestFailure> failures = testFailureRepository.findAllById(failureIds).stream()
+                .collect(Collectors.toMap(TestFailure::getId, f -> f));
+        Map<Long, Object[]> seen = new HashMap<>();
+        for (Object[] row : failureCountRepository.findSeenRange(projectId, failureIds)) {
+            seen.put(((Number) row[0]).longValue(), row);
+        }
 
-        // Map the raw [Entity, Count] array to DTOs
         return results.stream()
                 .map(row -> {
-                    TestFailure failure = (TestFailure) row[0];
-                    Long count = (Long) row[1];
+                    Long failureId = ((Number) row[0]).longValue();
+                    TestFailure failure = failures.get(failureId);
+                    Object[] range = seen.get(failureId);
                     return FailureStatDto.builder()
-                            .failureId(failure.getId())
-                            .hash(failure.getFailureHash())
-                            .errorMessage(failure.getMessage()) // The short summary
-                            .count(count)
+                            .failureId(failureId)
+                            .hash(failure != null ? failure.getFailureHash() : null)
+                            .errorMessage(failure != null ? failure.getMessage() : null) // The short summary
+                            .count(((Number) row[1]).longValue())
+                            .firstSeen(range != null ? toLocalDate(range[1]) : null)
+                            .lastSeen(range != null ? toLocalDate(range[2]) : null)
                             .build();
                 })
                 .collect(Collectors.toList());
     }
 
-    public FlakyTestsResponse getFlakyTests(int days, int threshold, Long projectId) {
+    /**
+     * Failure clusters (near-duplicate failures grouped at ingest, see FailureClusterService) by occurrences.
+     * 1. Occurrences per (cluster, failure) in the window, one query over failure_daily_counts
+     * 2. Summed per cluster, the most frequent failure represents it
+     * 3. Representatives of the top 'limit' clusters loaded in one batch
+     */
+    public List<FailureClusterDto> getFailureClusters(int limit, int days, Long projectId) {
+        LocalDate cutoffDay = LocalDate.now().minusDays(days);
+
+        // 1. + 2. Group per cluster (rows are per failure, so this stays small)
+        Map<Long, Map<Long, Long>> clusters = new HashMap<>();
+        for (Object[] row : failureSignatureRepository.countOccurrencesByCluster(cutoffDay, projectId)) {
+            Long clusterId = ((Number) row[0]).longValue();
+            Long failureId = ((Number) row[1]).longValue();
+            long count = ((Number) row[2]).longValue();
+            clusters.computeIfAbsent(clusterId, k -> new HashMap<>()).merge(failureId, count, Long::sum);
+        }
+
+        List<FailureClusterDto> top = clusters.entrySet().stream()
+                .map(e -> {
+                    List<Long> failureIds = e.getValue().entrySet().stream()
+                            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                            .map(Map.Entry::getKey)
+                            .collect(Collectors.toList());
+                    return FailureClusterDto.builder()
+                            .clusterId(e.getKey())
+                            .representativeFailureId(failureIds.getFirst())
+                            .failureCount(failureIds.size())
+                            .occurrenceCount(e.getValue().values().stream().mapToLong(Long::longValue).sum())
+                            .failureIds(failureIds)
+                            .build();
+                })
+                .sorted(Comparator.comparingLong(FailureClusterDto::getOccurrenceCount).reversed()
+                        .thenComparing(FailureClusterDto::getClusterId))
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        // 3. Representative messages
+        Map<Long, TestFailure> representatives = testFailureRepository.findAllById(
+                        top.stream().map(FailureClusterDto::getRepresentativeFailureId).toList()).stream()
+                .collect(Collectors.toMap(TestFailure::getId, f -> f));
+        for (FailureClusterDto cluster : top) {
+            TestFailure representative = representatives.get(cluster.getRepresentativeFailureId());
+            if (representative != null) {
+                cluster.setRepresentativeHash(representative.getFailureHash());
+                cluster.setRepresentativeMessage(representative.getMessage());
+                cluster.setCategory(representative.getCategory() != null
+                        ? representative.getCategory() : failureClassifier.getDefaultCategory());
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Tests that got slower: recent duration (fast EWMA) significantly above the baseline (slow EWMA).
+     * Both are maintained at ingest (see TestDurationBaselineService), so this reads one row per test.
+     */
+    public List<SlowTestDto> getSlowRegressions(int days, int limit, double minIncreasePercent, double zThreshold, Long projectId) {
         LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
-        List<Object[]> results = testCaseRepository.findFlakyTests(cutoff, projectId);
+        List<Object[]> results = durationBaselineRepository.findRegressions(projectId, cutoff, regressionMinSamples,
+                minIncreasePercent / 100.0, zThreshold, regressionMinStdDev, limit);
+
+        return results.stream()
+                .map(row -> {
+                    double mean = ((Number) row[3]).doubleValue();
+                    double stdDev = Math.sqrt(((Number) row[4]).doubleValue());
+                    double recent = ((Number) row[5]).doubleValue();
+                    double increase = mean > 0 ? (recent - mean) / mean * 100 : 0.0;
+                    double zScore = (recent - mean) / Math.max(stdDev, regressionMinStdDev);
+                    Object updatedAt = row[7];
+
+                    return SlowTestDto.builder()
+                            .className((String) row[0])
+                            .testName((String) row[1])
+                            .samples(((Number) row[2]).longValue())
+                            .baselineDuration(Math.round(mean * 1000.0) / 1000.0)
+                            .baselineStdDev(Math.round(stdDev * 1000.0) / 1000.0)
+                            .recentDuration(Math.round(recent * 1000.0) / 1000.0)
+                            .lastDuration(Math.round(((Number) row[6]).doubleValue() * 1000.0) / 1000.0)
+                            .increasePercent(Math.round(increase * 10.0) / 10.0)
+                            .zScore(Math.round(zScore * 10.0) / 10.0)
+                            .lastSeen(updatedAt instanceof java.sql.Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) updatedAt)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Flaky tests are read from test_daily_stats (maintained at ingest) with the management state joined in SQL.
+     * Score = flip rate: status transitions / (executions - 1). A test that broke once and stayed broken
+     * scores low; one that keeps alternating (or needs reruns) scores high.
+     * Window is aligned to whole days, like the trends.
+     */
+    public FlakyTestsResponse getFlakyTests(int days, int threshold, Long projectId) {
+        LocalDate cutoffDay = LocalDate.now().minusDays(days);
+        List<Object[]> results = testStatsRepository.findFlakyTests(projectId, cutoffDay);
 
         List<FlakyTestDto> tests = results.stream()
                 .map(row -> {
                     String testName = (String) row[0];
                     String className = (String) row[1];
-                    Long total = (Long) row[2];
-                    Long failures = (Long) row[3];
-                    double score = (double) failures / total * 100;
+                    long total = ((Number) row[2]).longValue();
+                    long failures = ((Number) row[3]).longValue();
+                    long flips = ((Number) row[4]).longValue();
+                    double score = total > 1 ? (double) flips / (total - 1) * 100 : 0.0;
 
-                    // Fetch management status (This could be optimized with a bulk fetch, but looping is fine for N < 100)
-                    TestManagement mgmt = testManagementRepository
-                            .findByClassNameAndTestName(className, testName)
-                            .orElse(new TestManagement(className, testName));
+                    // Management fields (LEFT JOIN: null when the test was never triaged)
+                    Long mgmtId = row[5] != null ? ((Number) row[5]).longValue() : null;
+                    String resolutionStatus = row[7] != null ? (String) row[7] : "unresolved";
 
                     return FlakyTestDto.builder()
                             .testName(testName)
@@ -201,12 +376,13 @@ public class DashboardService {
                             .totalExecutions(total)
                             .failCount(failures)
                             .passCount(total - failures)
+                            .flipCount(flips)
                             .flakinessScore(Math.round(score * 100.0) / 100.0)
                             // Management fields
-                            .id(mgmt.getId() != null ? mgmt.getId().toString() : "new_" + className + "_" + testName)
-                            .acknowledged(mgmt.isAcknowledged())
-                            .resolutionStatus(mgmt.getResolutionStatus())
-                            .assignee(mgmt.getAssignee())
+                            .id(mgmtId != null ? mgmtId.toString() : "new_" + className + "_" + testName)
+                            .acknowledged(Boolean.TRUE.equals(row[6]))
+                            .resolutionStatus(resolutionStatus)
+                            .assignee((String) row[8])
                             .build();
                 })
                 // Filter by Threshold
@@ -253,6 +429,8 @@ public class DashboardService {
         }
 
         TestManagement saved = testManagementRepository.save(mgmt);
+        // Test management is global (not per project), so every project's flaky list may change
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(null));
 
         return FlakyTestDto.builder()
                 .testName(testName)
@@ -263,47 +441,40 @@ public class DashboardService {
                 .build();
     }
 
+    /**
+     * Failure counts per category (categories are assigned once at ingest, see FailureClassifier),
+     * with the trend against the previous period of the same length.
+     */
     public List<FailurePatternDto> getFailurePatterns(int days, Long projectId) {
-        // Simple regex/keyword matching on top failures
-        // In a real app, you might use AI or clustering here
-
-        List<FailureStatDto> topFailures = getTopFailures(100, days, projectId);
-
-        Map<String, Integer> categories = new HashMap<>();
-        categories.put("Timeout", 0);
-        categories.put("Assertion", 0);
-        categories.put("Null Pointer", 0);
-        categories.put("Stale Element", 0);
-        categories.put("Connection", 0);
-        categories.put("Other", 0);
-
-        for (FailureStatDto fail : topFailures) {
-            String msg = fail.getErrorMessage() != null ? fail.getErrorMessage().toLowerCase() : "";
-            long count = fail.getCount();
-
-            if (msg.contains("timeout") || msg.contains("nosuchelement")) {
-                categories.merge("Timeout", (int)count, Integer::sum);
-            } else if (msg.contains("assertion") || msg.contains("expected")) {
-                categories.merge("Assertion", (int)count, Integer::sum);
-            } else if (msg.contains("nullpointer")) {
-                categories.merge("Null Pointer", (int)count, Integer::sum);
-            } else if (msg.contains("stale") || msg.contains("detached")) {
-                categories.merge("Stale Element", (int)count, Integer::sum);
-            } else if (msg.contains("connection") || msg.contains("http")) {
-                categories.merge("Connection", (int)count, Integer::sum);
-            } else {
-                categories.merge("Other", (int)count, Integer::sum);
-            }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = testCaseRepository.countFailuresByCategory(now.minusDays(days), now.minusDays(days * 2L), projectId);
+
+        // Failures not categorized yet (backfill still running) count as the default category
+        String defaultCategory = failureClassifier.getDefaultCategory();
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String category = row[0] != null ? (String) row[0] : defaultCategory;
+            long[] c = counts.computeIfAbsent(category, k -> new long[2]);
+            c[0] += ((Number) row[1]).longValue();
+            c[1] += ((Number) row[2]).longValue();
         }
 
-        return categories.entrySet().stream()
-                .filter(e -> e.getValue() > 0)
+        return counts.entrySet().stream()
+                .filter(e -> e.getValue()[0] > 0)
                 .map(e -> FailurePatternDto.builder()
                         .category(e.getKey())
-                        .count(e.getValue())
-                        .trend("stable") // Mock trend for now
+                        .count((int) e.getValue()[0])
+                        .previousCount((int) e.getValue()[1])
+                        .trend(trendOf(e.getValue()[0], e.getValue()[1]))
                         .build())
                 .sorted((a, b) -> b.getCount() - a.getCount())
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    // More than 10% change either way counts as a trend
+    private String trendOf(long current, long previous) {
+        if (current > previous * 1.1) return "up";
+        if (current < previous * 0.9) return "down";
+        return "stable";
+    }
+}
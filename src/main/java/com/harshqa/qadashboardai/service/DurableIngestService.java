@@ -0,0 +1,193 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.dto.TestRunEvent;
+import com.harshqa.qadashboardai.entity.IngestJobRecord;
+import com.harshqa.qadashboardai.model.TestReport;
+import com.harshqa.qadashboardai.repository.IngestJobPayloadJdbcRepository;
+import com.harshqa.qadashboardai.repository.IngestJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Durable, multi-node ingestion queue (table: ingest_jobs).
+ *
+ * Upload -> a QUEUED row + the raw XML (ingest_job_payloads) are inserted in one transaction.
+ * Every node polls the table and claims jobs with FOR UPDATE SKIP LOCKED, holding a lease while it works.
+ * If a node dies mid-parse its lease expires and another node picks the job up again.
+ *
+ * Exactly-once: the run is saved in the same transaction that marks the job COMPLETED, and that update
+ * only matches while this node still owns the lease. A node that lost its lease (crash, stalled heartbeat)
+ * rolls its save back, so only the node that completes the job ever persists the report.
+ */
+@Service
+public class DurableIngestService {
+
+    private final IngestJobRepository ingestJobRepository;
+    private final IngestJobPayloadJdbcRepository payloadRepository;
+    private final XmlParserService xmlParserService;
+    private final TestRunService testRunService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean workerEnabled;
+    private final int maxWorkers;
+    private final int maxAttempts;
+    private final Duration leaseDuration;
+
+    // Identifies this instance in lease_owner
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Jobs this node is currently working on (their leases get renewed by the heartbeat)
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DurableIngestService(IngestJobRepository ingestJobRepository, IngestJobPayloadJdbcRepository payloadRepository,
+                                XmlParserService xmlParserService, TestRunService testRunService,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${qa.ingest.durable.worker-enabled:true}") boolean workerEnabled,
+                                @Value("${qa.ingest.durable.workers:2}") int maxWorkers,
+                                @Value("${qa.ingest.durable.max-attempts:3}") int maxAttempts,
+                                @Value("${qa.ingest.durable.lease-seconds:300}") long leaseSeconds) {
+        this.ingestJobRepository = ingestJobRepository;
+        this.payloadRepository = payloadRepository;
+        this.xmlParserService = xmlParserService;
+        this.testRunService = testRunService;
+        this.transactionTemplate = transactionTemplate;
+        this.workerEnabled = workerEnabled;
+        this.maxWorkers = maxWorkers;
+        this.maxAttempts = maxAttempts;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+    }
+
+    // Job row and report are committed together: a claimed job always has its XML
+    public IngestJobRecord enqueue(MultipartFile file, Long projectId) {
+        return transactionTemplate.execute(status -> {
+            IngestJobRecord job = ingestJobRepository.save(new IngestJobRecord(projectId, file.getOriginalFilename()));
+            try (InputStream in = file.getInputStream()) {
+                payloadRepository.insert(job.getId(), in, file.getSize());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read upload " + file.getOriginalFilename(), e);
+            }
+            return job;
+        });
+    }
+
+    public Optional<IngestJobRecord> getJob(Long id) {
+        return ingestJobRepository.findById(id);
+    }
+
+    @Scheduled(fixedDelayString = "${qa.ingest.durable.poll-interval-ms:2000}")
+    public void poll() {
+        if (!workerEnabled) return;
+
+        int freeSlots = maxWorkers - inFlight.size();
+        if (freeSlots <= 0) return;
+
+        for (IngestJobRecord job : claim(freeSlots)) {
+            inFlight.add(job.getId());
+            executor.submit(() -> process(job));
+        }
+    }
+
+    // Heartbeat: extend the leases of jobs we are still working on (big files can take a while)
+    @Scheduled(fixedDelayString = "${qa.ingest.durable.heartbeat-interval-ms:60000}")
+    public void renewLeases() {
+        if (inFlight.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status ->
+                ingestJobRepository.renewLeases(Set.copyOf(inFlight), nodeId, LocalDateTime.now().plus(leaseDuration)));
+    }
+
+    List<IngestJobRecord> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<IngestJobRecord> jobs = ingestJobRepository.lockClaimableJobs(now, limit);
+            for (IngestJobRecord job : jobs) {
+                job.setStatus("RUNNING");
+                job.setLeaseOwner(nodeId);
+                job.setLeaseExpiresAt(now.plus(leaseDuration));
+                job.setAttempts(job.getAttempts() + 1);
+                job.setUpdatedAt(now);
+            }
+            return jobs; // Dirty checking writes the claim on commit, which also releases the row locks
+        });
+    }
+
+    void process(IngestJobRecord job) {
+        try {
+            if (job.getAttempts() > maxAttempts) {
+                release(job, "FAILED", null, "Gave up after " + maxAttempts + " attempts");
+                return;
+            }
+
+            byte[] reportXml = payloadRepository.findReport(job.getId())
+                    .orElseThrow(() -> new RuntimeException("Report of ingest job " + job.getId() + " is missing"));
+            TestReport report;
+            try (InputStream in = new ByteArrayInputStream(reportXml)) {
+                report = xmlParserService.parse(in);
+            }
+
+            // Save the run and complete the job in ONE transaction: if the lease is gone, the save is rolled back
+            TestRunEvent event = transactionTemplate.execute(status -> {
+                TestRunEvent saved = testRunService.persistTestRun(report, job.getProjectId(), null);
+                if (!release(job, "COMPLETED", saved.getRunId(), null)) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return saved;
+            });
+
+            if (event != null) {
+                testRunService.publishRunEvent(event);
+                System.out.println("Durable ingest job " + job.getId() + " saved for Project " + job.getProjectId() + " with Run ID: " + event.getRunId());
+            }
+        } catch (Exception e) {
+            System.err.println("Durable ingest job " + job.getId() + " failed (attempt " + job.getAttempts() + "): " + e.getMessage());
+            // Retry later (any node) until we run out of attempts
+            release(job, job.getAttempts() >= maxAttempts ? "FAILED" : "QUEUED", null, e.getMessage());
+        } finally {
+            inFlight.remove(job.getId());
+        }
+    }
+
+    /**
+     * Moves the job to its next state, only if this node still owns the lease (false otherwise: another node took over).
+     * Final states (COMPLETED, FAILED) also drop the raw XML, since the job is never claimed again.
+     * Joins the caller's transaction if there is one.
+     */
+    private boolean release(IngestJobRecord job, String status, Long runId, String error) {
+        Boolean released = transactionTemplate.execute(s -> {
+            int updated = ingestJobRepository.release(job.getId(), nodeId, status, runId, error, LocalDateTime.now());
+            if (updated == 0) return false;
+            if (!"QUEUED".equals(status)) payloadRepository.delete(job.getId());
+            return true;
+        });
+        if (!Boolean.TRUE.equals(released)) {
+            System.err.println("Durable ingest job " + job.getId() + ": lease lost, another node owns it now");
+            return false;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Unfinished jobs keep their lease until it expires, then another node claims them
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,150 @@
+package com.harshqa.qadashboardai.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Mergeable histogram of test durations (HDR-style log-linear buckets over whole milliseconds).
+ *
+ * - Values below 128 ms have their own bucket (exact)
+ * - Above that, every power of two is split into 64 buckets -> relative error below 1.6%
+ * - Merging two histograms = adding their bucket counts, so per-run histograms can be combined
+ *   into any day / window without going back to the individual test cases
+ *
+ * Serialized form (version 1), only non-empty buckets:
+ *   varint  bucket count
+ *   n x     varint bucket index delta, varint count
+ * A typical run needs a few hundred bytes.
+ */
+public final class DurationHistogram {
+
+    public static final int VERSION = 1;
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;        // 64 per power of two
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;             // 128 ms
+    private static final int MAX_BUCKETS = LINEAR_LIMIT + 26 * SUB_BUCKETS; // Up to Integer.MAX_VALUE ms
+
+    private long[] counts = new long[LINEAR_LIMIT];
+    private long totalCount;
+
+    public void record(double seconds) {
+        long millis = Math.round(Math.max(0.0, seconds) * 1000.0);
+        int index = bucketIndex((int) Math.min(millis, Integer.MAX_VALUE));
+        ensureCapacity(index + 1);
+        counts[index]++;
+        totalCount++;
+    }
+
+    public void merge(DurationHistogram other) {
+        ensureCapacity(other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Value (in seconds) at the given percentile (0-100), or 0 when empty.
+     * Returns the middle of the bucket holding the rank, so the error is at most half a bucket.
+     */
+    public double percentile(double percentile) {
+        if (totalCount == 0) return 0.0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return bucketMidpoint(i) / 1000.0;
+            }
+        }
+        return bucketMidpoint(counts.length - 1) / 1000.0;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        int nonEmpty = 0;
+        for (long c : counts) if (c > 0) nonEmpty++;
+        writeVarint(out, nonEmpty);
+
+        int previous = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            writeVarint(out, i - previous);
+            writeVarint(out, counts[i]);
+            previous = i;
+        }
+        return out.toByteArray();
+    }
+
+    public static DurationHistogram fromBytes(byte[] data) {
+        DurationHistogram histogram = new DurationHistogram();
+        int[] position = {0};
+        long n = readVarint(data, position);
+
+        int index = 0;
+        for (long b = 0; b < n; b++) {
+            index += (int) readVarint(data, position);
+            if (index >= MAX_BUCKETS) {
+                throw new IllegalStateException("Corrupt duration histogram: bucket out of range");
+            }
+            long count = readVarint(data, position);
+            histogram.ensureCapacity(index + 1);
+            histogram.counts[index] += count;
+            histogram.totalCount += count;
+        }
+        return histogram;
+    }
+
+    // --- Bucket math ---
+
+    static int bucketIndex(int millis) {
+        if (millis < LINEAR_LIMIT) return millis;
+        // Keep the top 7 bits: (millis >> shift) is in [64, 128)
+        int shift = (31 - Integer.numberOfLeadingZeros(millis)) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + ((millis >> shift) - SUB_BUCKETS);
+    }
+
+    static double bucketMidpoint(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long lower = (long) ((index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        long width = 1L << shift;
+        return lower + (width - 1) / 2.0;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(size, Math.min(MAX_BUCKETS, counts.length * 2)));
+        }
+    }
+
+    // --- Varints (unsigned LEB128, same scheme as RunResultCodec) ---
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position[0] >= data.length || shift > 63) {
+                throw new IllegalStateException("Corrupt duration histogram: unexpected end of data");
+            }
+            b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,229 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.TestRun;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams runs / test cases of a project and period as NDJSON or CSV.
+ *
+ * - Everything runs inside the StreamingResponseBody: the connection is taken when the
+ *   response starts and released when it ends
+ * - Forward-only cursors with a fetch size (Postgres only streams inside a transaction, hence the
+ *   read-only TransactionTemplate), so memory stays flat no matter how long the period is
+ * - Test cases: stored rows + decoded compact block of each run (one run in memory at a time)
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final String[] RUN_COLUMNS = {
+            "runId", "executionDate", "status", "totalTests", "passCount", "failCount", "skipCount", "totalDuration"};
+    private static final String[] TEST_CASE_COLUMNS = {
+            "runId", "executionDate", "className", "testName", "status", "duration",
+            "failureId", "failureHash", "category", "message"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ExportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                         @Value("${qa.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public void exportRuns(Long projectId, LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        try (RowWriter writer = openWriter(format, out, RUN_COLUMNS)) {
+            readOnlyTransaction.executeWithoutResult(status -> streamRuns(projectId, from, to, rs -> {
+                int total = rs.getInt(3);
+                int pass = rs.getInt(4);
+                int skip = rs.getInt(6);
+                writer.row(rs.getLong(1), toDateTime(rs.getTimestamp(2)), TestRun.statusOf(total, pass, skip),
+                        total, pass, rs.getInt(5), skip, rs.getDouble(7));
+            }));
+        }
+    }
+
+    public void exportTestCases(Long projectId, LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        try (RowWriter writer = openWriter(format, out, TEST_CASE_COLUMNS)) {
+            readOnlyTransaction.executeWithoutResult(status -> streamRuns(projectId, from, to, rs -> {
+                long runId = rs.getLong(1);
+                String executionDate = toDateTime(rs.getTimestamp(2));
+                writeStoredRows(runId, executionDate, writer);
+                writeBlock(runId, executionDate, writer);
+            }));
+        }
+    }
+
+    // Runs of the period, oldest first, through a forward-only cursor
+    private void streamRuns(Long projectId, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(
+                    "SELECT id, execution_date, total_tests, pass_count, fail_count, skip_count, total_duration " +
+                    "FROM test_runs WHERE project_id = ? AND execution_date >= ? AND execution_date < ? " +
+                    "ORDER BY execution_date, id");
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, projectId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, handler);
+    }
+
+    // 1. test_cases rows of the run (failures, and everything for runs stored without a block)
+    private void writeStoredRows(long runId, String executionDate, RowWriter writer) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(
+                    "SELECT d.class_name, d.test_name, tc.status, tc.duration, " +
+                    "f.id, f.failure_hash, f.category, f.message " +
+                    "FROM test_cases tc JOIN test_definitions d ON d.id = tc.test_definition_id " +
+                    "LEFT JOIN test_failures f ON f.id = tc.failure_id " +
+                    "WHERE tc.run_id = ? ORDER BY tc.test_definition_id, tc.id");
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, runId);
+            return ps;
+        }, (RowCallbackHandler) rs -> writer.row(runId, executionDate, rs.getString(1), rs.getString(2),
+                rs.getString(3), rs.getDouble(4), rs.getObject(5) != null ? rs.getLong(5) : null,
+                rs.getString(6), rs.getString(7), rs.getString(8)));
+    }
+
+    // 2. Compact PASSED / SKIPPED results of the run
+    private void writeBlock(long runId, String executionDate, RowWriter writer) {
+        byte[] data = jdbcTemplate.query("SELECT data FROM run_result_blocks WHERE run_id = ?",
+                rs -> rs.next() ? rs.getBytes(1) : null, runId);
+        if (data == null) return;
+
+        RunResultCodec.Results results = RunResultCodec.decode(data);
+        Integer[] definitionIds = new Integer[results.size()];
+        for (int i = 0; i < results.size(); i++) definitionIds[i] = results.definitionId(i);
+
+        Map<Integer, String[]> names = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement("SELECT id, class_name, test_name FROM test_definitions WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("integer", definitionIds));
+            return ps;
+        }, (RowCallbackHandler) rs -> names.put(rs.getInt(1), new String[]{rs.getString(2), rs.getString(3)}));
+
+        for (int i = 0; i < results.size(); i++) {
+            String[] name = names.getOrDefault(results.definitionId(i), new String[2]);
+            writer.row(runId, executionDate, name[0], name[1], results.status(i), results.duration(i),
+                    null, null, null, null);
+        }
+    }
+
+    private static String toDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+    private RowWriter openWriter(Format format, OutputStream out, String[] columns) {
+        return format == Format.CSV ? new CsvWriter(out, columns) : new NdjsonWriter(objectMapper, out, columns);
+    }
+
+    // --- Output formats ---
+
+    private interface RowWriter extends AutoCloseable {
+        void row(Object... values);
+
+        @Override
+        void close();
+    }
+
+    // One JSON object per line, keys = column names
+    private static final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator json;
+        private final String[] columns;
+        private boolean empty = true;
+
+        NdjsonWriter(ObjectMapper objectMapper, OutputStream out, String[] columns) {
+            // Root values are separated by the line break
+            this.json = objectMapper.writer().withRootValueSeparator("\n").createGenerator(out);
+            this.columns = columns;
+        }
+
+        @Override
+        public void row(Object... values) {
+            json.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                json.writeName(columns[i]);
+                Object value = values[i];
+                if (value == null) json.writeNull();
+                else if (value instanceof Long l) json.writeNumber(l);
+                else if (value instanceof Integer n) json.writeNumber(n);
+                else if (value instanceof Double d) json.writeNumber(d);
+                else json.writeString(value.toString());
+            }
+            json.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void close() {
+            if (!empty) json.writeRaw('\n');
+            json.close();
+        }
+    }
+
+    // RFC 4180: header line, fields quoted when they contain a separator, quote or line break
+    private static final class CsvWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out, String[] columns) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            row((Object[]) columns);
+        }
+
+        @Override
+        public void row(Object... values) {
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) writer.write(',');
+                    if (values[i] != null) writer.write(escape(values[i].toString()));
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
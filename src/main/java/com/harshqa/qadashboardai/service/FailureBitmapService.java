@@ -0,0 +1,270 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.dto.CoFailureDto;
+import com.harshqa.qadashboardai.dto.FailingRunsDto;
+import com.harshqa.qadashboardai.entity.RunFailureBitmap;
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestDefinition;
+import com.harshqa.qadashboardai.entity.TestFailureBitmap;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.repository.FailureBitmapJdbcRepository;
+import com.harshqa.qadashboardai.repository.RunFailureBitmapRepository;
+import com.harshqa.qadashboardai.repository.TestDefinitionRepository;
+import com.harshqa.qadashboardai.repository.TestFailureBitmapRepository;
+import com.harshqa.qadashboardai.repository.TestRunRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bitmap index of failures, kept in sync with ingestion (joins the caller's transaction, like RollupService):
+ * - run_failure_bitmaps:  run  -> failing test definition ids
+ * - test_failure_bitmaps: test -> runs it failed in
+ *
+ * Reads are bitmap operations: "runs where X failed" is one row, co-failure is |X and Y| / |X or Y|
+ * over the candidate tests found in X's failing runs.
+ */
+@Service
+@Transactional
+public class FailureBitmapService {
+
+    private static final int BACKFILL_CHUNK = 200;
+    private static final byte[] EMPTY = FailureBitmaps.toBytes(new RoaringBitmap());
+
+    private final RunFailureBitmapRepository runBitmapRepository;
+    private final TestFailureBitmapRepository testBitmapRepository;
+    private final FailureBitmapJdbcRepository bitmapJdbcRepository;
+    private final TestDefinitionRepository testDefinitionRepository;
+    private final TestRunRepository testRunRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCandidateRuns;
+
+    public FailureBitmapService(RunFailureBitmapRepository runBitmapRepository, TestFailureBitmapRepository testBitmapRepository,
+                                FailureBitmapJdbcRepository bitmapJdbcRepository,
+                                TestDefinitionRepository testDefinitionRepository, TestRunRepository testRunRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${qa.analytics.co-failure.max-candidate-runs:1000}") int maxCandidateRuns) {
+        this.runBitmapRepository = runBitmapRepository;
+        this.testBitmapRepository = testBitmapRepository;
+        this.bitmapJdbcRepository = bitmapJdbcRepository;
+        this.testDefinitionRepository = testDefinitionRepository;
+        this.testRunRepository = testRunRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxCandidateRuns = maxCandidateRuns;
+    }
+
+    // --- Maintenance ---
+
+    public void recordNewRun(TestRun run, List<TestCase> testCases) {
+        RoaringBitmap failing = new RoaringBitmap();
+        for (TestCase tc : testCases) {
+            if ("FAILED".equals(tc.getStatus())) failing.add(tc.getTestDefinition().getId());
+        }
+        saveRunBitmap(run.getId(), run.getProject().getId(), failing);
+        addRun(run.getProject().getId(), run.getId(), failing);
+    }
+
+    // Rerun merge: the fixed tests no longer failed in this run
+    public void recordFixedTests(TestRun run, List<TestCase> fixedTests) {
+        if (fixedTests.isEmpty()) return;
+        RunFailureBitmap row = runBitmapRepository.findById(run.getId()).orElse(null);
+        if (row == null) return; // Not indexed yet: the backfill will read the merged state
+
+        RoaringBitmap failing = FailureBitmaps.fromBytes(row.getData());
+        RoaringBitmap fixed = new RoaringBitmap();
+        fixedTests.forEach(tc -> fixed.add(tc.getTestDefinition().getId()));
+        failing.andNot(fixed);
+        row.setData(FailureBitmaps.toBytes(failing));
+        runBitmapRepository.save(row);
+
+        Map<Integer, RoaringBitmap> removals = new HashMap<>();
+        fixed.forEach((int id) -> removals.put(id, RoaringBitmap.bitmapOf(FailureBitmaps.runKey(run.getId()))));
+        removeRuns(removals);
+    }
+
+    // Deleted runs: drop them from the per-test bitmaps, then their own rows
+    public void forgetRuns(Collection<Long> runIds) {
+        if (runIds.isEmpty()) return;
+        Map<Integer, RoaringBitmap> removals = new HashMap<>();
+        for (RunFailureBitmap row : runBitmapRepository.findAllById(runIds)) {
+            int runKey = FailureBitmaps.runKey(row.getRunId());
+            FailureBitmaps.fromBytes(row.getData())
+                    .forEach((int id) -> removals.computeIfAbsent(id, k -> new RoaringBitmap()).add(runKey));
+        }
+        removeRuns(removals);
+        runBitmapRepository.deleteAllByRunIds(runIds);
+    }
+
+    private void saveRunBitmap(Long runId, Long projectId, RoaringBitmap failing) {
+        RunFailureBitmap row = new RunFailureBitmap();
+        row.setRunId(runId);
+        row.setProjectId(projectId);
+        row.setData(FailureBitmaps.toBytes(failing));
+        runBitmapRepository.save(row);
+    }
+
+    // Locked read-modify-write of the failing tests' bitmaps (usually a handful per run)
+    private void addRun(Long projectId, Long runId, RoaringBitmap failingTests) {
+        if (failingTests.isEmpty()) return;
+        List<Integer> ids = new ArrayList<>(failingTests.getCardinality());
+        failingTests.forEach((int id) -> ids.add(id));
+
+        testBitmapRepository.insertEmptyIfMissing(projectId, ids, EMPTY);
+        int runKey = FailureBitmaps.runKey(runId);
+        for (TestFailureBitmap row : testBitmapRepository.lockAllById(ids)) {
+            RoaringBitmap runs = FailureBitmaps.fromBytes(row.getData());
+            runs.add(runKey);
+            row.setData(FailureBitmaps.toBytes(runs));
+            row.setFailedRuns(runs.getCardinality());
+        }
+        // Managed entities: flushed with the transaction
+    }
+
+    private void removeRuns(Map<Integer, RoaringBitmap> removals) {
+        if (removals.isEmpty()) return;
+        for (TestFailureBitmap row : testBitmapRepository.lockAllById(removals.keySet())) {
+            RoaringBitmap runs = FailureBitmaps.fromBytes(row.getData());
+            runs.andNot(removals.get(row.getTestDefinitionId()));
+            row.setData(FailureBitmaps.toBytes(runs));
+            row.setFailedRuns(runs.getCardinality());
+        }
+    }
+
+    // --- Queries ---
+
+    @Transactional(readOnly = true)
+    public FailingRunsDto getFailingRuns(Long projectId, String className, String testName, int limit) {
+        TestDefinition definition = findDefinition(projectId, className, testName);
+        RoaringBitmap runs = loadTestBitmap(definition.getId());
+
+        List<Long> runIds = bitmapJdbcRepository.findNewestRuns(toRunIds(runs), limit);
+        return FailingRunsDto.builder()
+                .className(definition.getClassName())
+                .testName(definition.getTestName())
+                .failedRunCount(runs.getCardinality())
+                .runIds(runIds)
+                .build();
+    }
+
+    /**
+     * Tests that fail together with the given one, most similar first.
+     * Candidates come from the failing runs of the test (the latest executed qa.analytics.co-failure.max-candidate-runs),
+     * the similarity itself uses the full bitmaps.
+     */
+    @Transactional(readOnly = true)
+    public List<CoFailureDto> getCoFailures(Long projectId, String className, String testName, int limit, int minShared) {
+        TestDefinition definition = findDefinition(projectId, className, testName);
+        RoaringBitmap runs = loadTestBitmap(definition.getId());
+        if (runs.isEmpty()) return List.of();
+
+        // 1. Candidates: every test that failed in one of those runs
+        List<Long> candidateRuns = bitmapJdbcRepository.findNewestRuns(toRunIds(runs), maxCandidateRuns);
+        RoaringBitmap candidates = new RoaringBitmap();
+        for (RunFailureBitmap row : runBitmapRepository.findAllById(candidateRuns)) {
+            candidates.or(FailureBitmaps.fromBytes(row.getData()));
+        }
+        candidates.remove(definition.getId());
+        if (candidates.isEmpty()) return List.of();
+
+        List<Integer> candidateIds = new ArrayList<>(candidates.getCardinality());
+        candidates.forEach((int id) -> candidateIds.add(id));
+
+        // 2. Jaccard per candidate: intersection / union of the failing runs
+        record Scored(int definitionId, int shared, int failedRuns, double jaccard) {
+        }
+        List<Scored> scored = new ArrayList<>();
+        for (TestFailureBitmap row : testBitmapRepository.findAllById(candidateIds)) {
+            RoaringBitmap other = FailureBitmaps.fromBytes(row.getData());
+            int shared = RoaringBitmap.andCardinality(runs, other);
+            if (shared < minShared) continue;
+            int union = RoaringBitmap.orCardinality(runs, other);
+            scored.add(new Scored(row.getTestDefinitionId(), shared, other.getCardinality(), (double) shared / union));
+        }
+        List<Scored> top = scored.stream()
+                .sorted(Comparator.comparingDouble(Scored::jaccard).reversed()
+                        .thenComparing(Comparator.comparingInt(Scored::shared).reversed()))
+                .limit(limit)
+                .toList();
+
+        // 3. Names
+        Map<Integer, TestDefinition> definitions = testDefinitionRepository
+                .findAllById(top.stream().map(Scored::definitionId).toList()).stream()
+                .collect(Collectors.toMap(TestDefinition::getId, Function.identity()));
+        return top.stream().map(s -> {
+            TestDefinition d = definitions.get(s.definitionId());
+            return CoFailureDto.builder()
+                    .className(d != null ? d.getClassName() : null)
+                    .testName(d != null ? d.getTestName() : null)
+                    .sharedFailures(s.shared())
+                    .failedRuns(s.failedRuns())
+                    .jaccard(Math.round(s.jaccard() * 1000.0) / 1000.0)
+                    .build();
+        }).toList();
+    }
+
+    private TestDefinition findDefinition(Long projectId, String className, String testName) {
+        return testDefinitionRepository.findByProjectIdAndClassNameAndTestName(projectId, className, testName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Test not found: " + className + "#" + testName));
+    }
+
+    private static Long[] toRunIds(RoaringBitmap runs) {
+        Long[] ids = new Long[runs.getCardinality()];
+        int i = 0;
+        for (int runKey : runs) ids[i++] = (long) runKey;
+        return ids;
+    }
+
+    private RoaringBitmap loadTestBitmap(Integer definitionId) {
+        return testBitmapRepository.findById(definitionId)
+                .map(row -> FailureBitmaps.fromBytes(row.getData()))
+                .orElseGet(RoaringBitmap::new);
+    }
+
+    // --- Backfill ---
+
+    /**
+     * Indexes runs stored before the bitmaps existed, in chunks (one transaction each).
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillMissing() {
+        int total = 0;
+        while (true) {
+            Integer done = transactionTemplate.execute(status -> {
+                List<Long> runIds = runBitmapRepository.findRunIdsWithoutBitmap(BACKFILL_CHUNK);
+                if (runIds.isEmpty()) return 0;
+
+                Map<Long, RoaringBitmap> failingPerRun = new HashMap<>();
+                for (Object[] row : runBitmapRepository.findFailedTests(runIds)) {
+                    failingPerRun.computeIfAbsent(((Number) row[0]).longValue(), k -> new RoaringBitmap())
+                            .add(((Number) row[1]).intValue());
+                }
+                for (TestRun run : testRunRepository.findAllById(runIds)) {
+                    RoaringBitmap failing = failingPerRun.getOrDefault(run.getId(), new RoaringBitmap());
+                    saveRunBitmap(run.getId(), run.getProject().getId(), failing);
+                    addRun(run.getProject().getId(), run.getId(), failing);
+                }
+                return runIds.size();
+            });
+            if (done == null || done == 0) break;
+            total += done;
+        }
+        if (total > 0) {
+            System.out.println("Backfilled failure bitmaps for " + total + " runs");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.harshqa.qadashboardai.service;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * (De)serialization of the failure bitmaps (standard portable Roaring format).
+ * Bitmaps hold 32-bit values: test definition ids, and run ids (well below 2^31 in practice;
+ * toIntExact fails loudly otherwise).
+ */
+public final class FailureBitmaps {
+
+    private FailureBitmaps() {
+    }
+
+    public static byte[] toBytes(RoaringBitmap bitmap) {
+        bitmap.runOptimize(); // Consecutive ids (e.g. a test failing in every run) become runs
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        return buffer.array();
+    }
+
+    public static RoaringBitmap fromBytes(byte[] data) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        if (data == null || data.length == 0) return bitmap;
+        try {
+            bitmap.deserialize(new DataInputStream(new ByteArrayInputStream(data)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt failure bitmap", e);
+        }
+        return bitmap;
+    }
+
+    public static int runKey(long runId) {
+        return Math.toIntExact(runId);
+    }
+}
@@ -0,0 +1,40 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.repository.TestFailureJdbcRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Categorizes failures that were stored before categories existed (new ones are categorized at ingest).
+ */
+@Service
+public class FailureCategoryService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final TestFailureJdbcRepository testFailureJdbcRepository;
+    private final FailureClassifier failureClassifier;
+
+    public FailureCategoryService(TestFailureJdbcRepository testFailureJdbcRepository, FailureClassifier failureClassifier) {
+        this.testFailureJdbcRepository = testFailureJdbcRepository;
+        this.failureClassifier = failureClassifier;
+    }
+
+    public void backfillMissing() {
+        int total = 0;
+        while (true) {
+            Map<Long, String> chunk = testFailureJdbcRepository.findUncategorized(CHUNK_SIZE);
+            if (chunk.isEmpty()) break;
+
+            Map<Long, String> categories = new LinkedHashMap<>();
+            chunk.forEach((id, message) -> categories.put(id, failureClassifier.classify(message)));
+            testFailureJdbcRepository.updateCategories(categories);
+            total += chunk.size();
+        }
+        if (total > 0) {
+            System.out.println("Categorized " + total + " existing failures");
+        }
+    }
+}
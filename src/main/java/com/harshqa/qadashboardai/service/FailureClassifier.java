@@ -0,0 +1,178 @@
+package com.harshqa.qadashboardai.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Assigns a category (Timeout, Assertion, ...) to a failure message.
+ *
+ * The category table is configured as an ordered list (first category = highest priority):
+ *   qa.failures.categories=Timeout=timeout,nosuchelement;Assertion=assertion,expected;...
+ * Patterns are case-insensitive keywords, or regexes when prefixed with "re:" (they cannot contain ',' or ';').
+ *
+ * All keywords are compiled into one Aho-Corasick automaton, so a message is scanned once
+ * whatever the number of keywords. Regexes are combined into a single alternation.
+ * When several categories match, the one listed first wins (like the old if/else chain).
+ */
+@Component
+public class FailureClassifier {
+
+    private static final String DEFAULT_CATEGORIES =
+            "Timeout=timeout,nosuchelement;Assertion=assertion,expected;Null Pointer=nullpointer;" +
+            "Stale Element=stale,detached;Connection=connection,http";
+
+    private final List<String> categories = new ArrayList<>();
+    private final String defaultCategory;
+    private final KeywordAutomaton keywords = new KeywordAutomaton();
+    private final Pattern regexes; // null when no regex is configured
+    private final List<Integer> regexCategories = new ArrayList<>(); // Category indexes that have a regex group, ascending
+
+    public FailureClassifier(@Value("${qa.failures.categories:" + DEFAULT_CATEGORIES + "}") String table,
+                             @Value("${qa.failures.default-category:Other}") String defaultCategory) {
+        this.defaultCategory = defaultCategory;
+
+        // 1. Parse "Category=p1,p2;Category2=p3"
+        StringBuilder regex = new StringBuilder();
+        for (String entry : table.split(";")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid failure category entry: " + entry);
+            }
+            int index = categories.size();
+            categories.add(entry.substring(0, eq).trim());
+
+            for (String pattern : entry.substring(eq + 1).split(",")) {
+                pattern = pattern.trim();
+                if (pattern.isEmpty()) continue;
+                if (pattern.startsWith("re:")) {
+                    // Named group per category index, so the match tells us which category it was
+                    if (!regex.isEmpty()) regex.append('|');
+                    if (!regexCategories.contains(index)) regexCategories.add(index);
+                    regex.append("(?<c").append(index).append('>').append(pattern.substring(3)).append(')');
+                } else {
+                    keywords.add(pattern.toLowerCase(Locale.ROOT), index);
+                }
+            }
+        }
+
+        // 2. Compile
+        keywords.build();
+        this.regexes = regex.isEmpty() ? null : Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    public String classify(String message) {
+        if (message == null || message.isEmpty()) return defaultCategory;
+
+        int best = keywords.findBestMatch(message.toLowerCase(Locale.ROOT));
+        if (regexes != null && best != 0) {
+            best = Math.min(best, findBestRegexMatch(message));
+        }
+        return best == Integer.MAX_VALUE ? defaultCategory : categories.get(best);
+    }
+
+    public String getDefaultCategory() {
+        return defaultCategory;
+    }
+
+    private int findBestRegexMatch(String message) {
+        int best = Integer.MAX_VALUE;
+        Matcher matcher = regexes.matcher(message);
+        while (matcher.find()) {
+            for (int index : regexCategories) {
+                if (index >= best) break;
+                if (matcher.group("c" + index) != null) {
+                    best = index;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Aho-Corasick automaton over lowercase keywords.
+     * Each state keeps the best (lowest) category index of every keyword ending there, including the
+     * ones inherited through its failure link, so matching is a single walk over the text.
+     */
+    private static final class KeywordAutomaton {
+
+        private final List<Map<Character, Integer>> next = new ArrayList<>();
+        private final List<Integer> fail = new ArrayList<>();
+        private final List<Integer> output = new ArrayList<>();
+
+        KeywordAutomaton() {
+            newState(); // Root = state 0
+        }
+
+        private int newState() {
+            next.add(new HashMap<>());
+            fail.add(0);
+            output.add(Integer.MAX_VALUE);
+            return next.size() - 1;
+        }
+
+        void add(String keyword, int category) {
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                Integer target = next.get(state).get(c);
+                if (target == null) {
+                    target = newState();
+                    next.get(state).put(c, target);
+                }
+                state = target;
+            }
+            output.set(state, Math.min(output.get(state), category));
+        }
+
+        // Breadth-first: failure link of a state = longest proper suffix that is also a prefix in the trie
+        void build() {
+            Queue<Integer> queue = new ArrayDeque<>(next.get(0).values());
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : next.get(state).entrySet()) {
+                    char c = edge.getKey();
+                    int child = edge.getValue();
+
+                    int f = fail.get(state);
+                    while (f != 0 && !next.get(f).containsKey(c)) {
+                        f = fail.get(f);
+                    }
+                    Integer link = next.get(f).get(c);
+                    int childFail = (link != null && link != child) ? link : 0;
+                    fail.set(child, childFail);
+                    output.set(child, Math.min(output.get(child), output.get(childFail)));
+                    queue.add(child);
+                }
+            }
+        }
+
+        int findBestMatch(String text) {
+            int best = Integer.MAX_VALUE;
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                while (state != 0 && !next.get(state).containsKey(c)) {
+                    state = fail.get(state);
+                }
+                state = next.get(state).getOrDefault(c, 0);
+                if (output.get(state) < best) {
+                    best = output.get(state);
+                    if (best == 0) break; // Highest priority category, nothing can beat it
+                }
+            }
+            return best;
+        }
+    }
+}
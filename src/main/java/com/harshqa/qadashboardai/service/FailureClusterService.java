@@ -0,0 +1,124 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.FailureSignature;
+import com.harshqa.qadashboardai.repository.FailureClusterJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups near-duplicate failures (same root cause, slightly different traces) into clusters.
+ *
+ * Incremental, at ingest: for each new failure
+ * 1. MinHash signature of its trace shingles + one key per LSH band (see MinHashSignature)
+ * 2. Candidates = failures sharing at least one band key (one indexed lookup per band, all in one query)
+ * 3. Best candidate with estimated similarity >= threshold -> join its cluster, otherwise start a new one
+ * 4. Store the signature and band keys, so later failures can find this one
+ * A new failure never gets compared with all stored failures, only with its (few) bucket neighbours.
+ */
+@Service
+public class FailureClusterService {
+
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+
+    private final FailureClusterJdbcRepository clusterJdbcRepository;
+    private final double similarityThreshold;
+    private final int maxCandidatesPerBucket;
+
+    public FailureClusterService(FailureClusterJdbcRepository clusterJdbcRepository,
+                                 @Value("${qa.failures.clusters.similarity-threshold:0.7}") double similarityThreshold,
+                                 @Value("${qa.failures.clusters.max-candidates-per-bucket:20}") int maxCandidatesPerBucket) {
+        this.clusterJdbcRepository = clusterJdbcRepository;
+        this.similarityThreshold = similarityThreshold;
+        this.maxCandidatesPerBucket = maxCandidatesPerBucket;
+    }
+
+    /**
+     * Assigns clusters to newly stored failures (failure id -> stack trace).
+     * Runs in the caller's transaction; failures of the same batch can cluster with each other.
+     */
+    public void assignClusters(Map<Long, String> idToTrace) {
+        if (idToTrace.isEmpty()) return;
+
+        // 1. Signatures + band keys
+        Map<Long, int[]> signatures = new HashMap<>();
+        Map<Long, long[]> bandKeys = new HashMap<>();
+        Set<Long> allKeys = new LinkedHashSet<>();
+        idToTrace.forEach((id, trace) -> {
+            int[] signature = MinHashSignature.compute(trace);
+            long[] keys = MinHashSignature.bandKeys(signature);
+            signatures.put(id, signature);
+            bandKeys.put(id, keys);
+            for (long key : keys) allKeys.add(key);
+        });
+
+        // 2. Stored candidates for all band keys of the batch, in one query
+        Map<Long, List<Member>> buckets = new HashMap<>();
+        for (FailureClusterJdbcRepository.Candidate c : clusterJdbcRepository.findCandidates(allKeys, maxCandidatesPerBucket)) {
+            buckets.computeIfAbsent(c.bandKey(), k -> new ArrayList<>())
+                    .add(new Member(c.failureId(), c.clusterId(), MinHashSignature.fromBytes(c.signature())));
+        }
+
+        // 3. Decide in id order; every decided failure joins the in-memory buckets for the rest of the batch
+        List<FailureSignature> rows = new ArrayList<>(idToTrace.size());
+        List<long[]> bucketRows = new ArrayList<>(idToTrace.size() * MinHashSignature.BANDS);
+        idToTrace.keySet().stream().sorted().forEach(id -> {
+            int[] signature = signatures.get(id);
+            long[] keys = bandKeys.get(id);
+
+            Long clusterId = id;
+            double best = similarityThreshold;
+            Set<Long> seen = new HashSet<>();
+            for (long key : keys) {
+                for (Member m : buckets.getOrDefault(key, List.of())) {
+                    if (m.failureId == id || !seen.add(m.failureId)) continue;
+                    double similarity = MinHashSignature.similarity(signature, m.signature);
+                    if (similarity >= best) {
+                        best = similarity;
+                        clusterId = m.clusterId;
+                    }
+                }
+            }
+
+            Member self = new Member(id, clusterId, signature);
+            for (long key : keys) {
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(self);
+                bucketRows.add(new long[]{key, id});
+            }
+
+            FailureSignature row = new FailureSignature();
+            row.setFailureId(id);
+            row.setClusterId(clusterId);
+            row.setSignature(MinHashSignature.toBytes(signature));
+            rows.add(row);
+        });
+
+        // 4. Store
+        clusterJdbcRepository.insertSignatures(rows);
+        clusterJdbcRepository.insertBuckets(bucketRows);
+    }
+
+    // Failures stored before clustering existed (new ones are clustered at ingest)
+    public void backfillMissing() {
+        int total = 0;
+        while (true) {
+            Map<Long, String> chunk = clusterJdbcRepository.findUnsigned(BACKFILL_CHUNK_SIZE);
+            if (chunk.isEmpty()) break;
+            assignClusters(chunk);
+            total += chunk.size();
+        }
+        if (total > 0) {
+            System.out.println("Clustered " + total + " existing failures");
+        }
+    }
+
+    private record Member(long failureId, long clusterId, int[] signature) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.repository.FailureDailyCountJdbcRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps failure_daily_counts in sync with ingestion. Like RollupService, all methods join the caller's transaction.
+ */
+@Service
+@Transactional
+public class FailureCountService {
+
+    private final FailureDailyCountJdbcRepository countJdbcRepository;
+
+    public FailureCountService(FailureDailyCountJdbcRepository countJdbcRepository) {
+        this.countJdbcRepository = countJdbcRepository;
+    }
+
+    // New run -> +1 per failed test case, pre-aggregated per failure (one upsert each)
+    public void recordNewRun(TestRun run, List<TestCase> testCases) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (TestCase tc : testCases) {
+            // getId() on a lazy reference does not hit the DB
+            if ("FAILED".equals(tc.getStatus()) && tc.getTestFailure() != null) {
+                counts.merge(tc.getTestFailure().getId(), 1L, Long::sum);
+            }
+        }
+        countJdbcRepository.add(run.getProject().getId(), run.getExecutionDate().toLocalDate(), counts);
+    }
+
+    // Rerun merge -> the failures of the tests flipped to PASSED no longer count
+    public void recordFixedFailures(TestRun run, List<Long> fixedFailureIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long failureId : fixedFailureIds) {
+            counts.merge(failureId, 1L, Long::sum);
+        }
+        countJdbcRepository.subtract(run.getProject().getId(), run.getExecutionDate().toLocalDate(), counts);
+    }
+
+    // Runs of one day about to be deleted (call before the delete, their rows are read)
+    public void forgetRuns(Long projectId, LocalDate day, Collection<Long> runIds) {
+        countJdbcRepository.subtractRuns(projectId, day, runIds);
+    }
+
+    // One-off backfill for days ingested before failure_daily_counts existed
+    public void backfillMissing() {
+        int created = countJdbcRepository.rebuildMissing();
+        if (created > 0) {
+            System.out.println("Backfilled " + created + " failure daily counts");
+        }
+    }
+}
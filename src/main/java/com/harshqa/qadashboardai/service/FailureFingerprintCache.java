@@ -0,0 +1,51 @@
+package com.harshqa.qadashboardai.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process cache: failure hash -> TestFailure id.
+ * Shared across uploads so recurring failures are resolved without touching the database.
+ * Bounded (LRU): once full, the least recently used fingerprint is dropped.
+ * Only committed ids should be put here (see TestRunService), so a rollback never leaves stale ids.
+ */
+@Component
+public class FailureFingerprintCache {
+
+    private final Map<String, Long> cache;
+
+    public FailureFingerprintCache(@Value("${qa.ingest.failure-cache-size:10000}") int maxSize) {
+        // accessOrder = true turns LinkedHashMap into an LRU
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached ids for the given hashes (misses are simply absent from the result).
+     */
+    public synchronized Map<String, Long> getAll(Collection<String> hashes) {
+        Map<String, Long> hits = new HashMap<>();
+        for (String hash : hashes) {
+            Long id = cache.get(hash);
+            if (id != null) hits.put(hash, id);
+        }
+        return hits;
+    }
+
+    public synchronized void putAll(Map<String, Long> hashToId) {
+        cache.putAll(hashToId);
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,350 @@
+package com.harshqa.qadashboardai.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Turns a stack trace into a stable fingerprint (SHA-256 hex), so the "same" failure maps to one TestFailure
+ * even when run-specific details differ.
+ *
+ * Normalization (applied while hashing, no intermediate strings):
+ * 1. Standalone numbers (line numbers after ':', ports, ids, counts) and lambda/proxy suffixes ($0, $Proxy12) -> '#'.
+ *    Digits inside identifiers stay: Step1Page, test2, OrderV2Service are different classes / methods.
+ * 2. Hex tokens (0x..., object hash codes after '@', UUIDs) -> '#'. Date-times (2024-01-05T10:11:12.345Z,
+ *    2024-01-05 10:11:12) -> '#' as a whole, before rule 1 would keep the "T10" of an ISO timestamp.
+ * 3. Whitespace runs -> one space, blank lines dropped
+ * 4. Frames: module prefixes ("java.base/") dropped, framework frames (reflection, test runners) skipped,
+ *    only the top N remaining frames kept. "... 12 more" lines are skipped.
+ * 5. A trace truncated by the parser loses its last (partial) line, so the cut position does not matter.
+ */
+@Component
+public class FailureFingerprinter {
+
+    // Bump when the normalization changes: stored failures with an older version get re-fingerprinted
+    public static final int VERSION = 3;
+
+    private static final String DEFAULT_IGNORED_FRAMES =
+            "java.lang.reflect.,jdk.internal.,sun.reflect.,java.lang.Thread.run,java.util.concurrent.," +
+            "org.junit.platform.,org.junit.runners.,org.junit.internal.,org.junit.jupiter.engine.," +
+            "org.testng.internal.,org.testng.TestRunner,org.testng.SuiteRunner,org.testng.TestNG," +
+            "org.apache.maven.surefire.,org.gradle.,worker.org.gradle.";
+
+    // Digests and output buffers are reused per thread (fingerprinting runs on parse/ingest workers)
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new RuntimeException("Hashing failed", e);
+        }
+    });
+    private static final ThreadLocal<DigestSink> SINK = ThreadLocal.withInitial(DigestSink::new);
+
+    private final int maxFrames;
+    private final List<String> ignoredFramePrefixes;
+
+    public FailureFingerprinter(@Value("${qa.failures.fingerprint.max-frames:10}") int maxFrames,
+                                @Value("${qa.failures.fingerprint.ignored-frames:" + DEFAULT_IGNORED_FRAMES + "}") List<String> ignoredFramePrefixes) {
+        this.maxFrames = maxFrames;
+        this.ignoredFramePrefixes = ignoredFramePrefixes.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+    }
+
+    public String fingerprint(String trace) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        DigestSink sink = SINK.get();
+        sink.reset(digest);
+
+        writeNormalized(trace, sink);
+        sink.flush();
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // The text that gets hashed (for tests and debugging)
+    String normalizedText(String trace) {
+        StringBuilder out = new StringBuilder();
+        writeNormalized(trace, out::append);
+        return out.toString();
+    }
+
+    private void writeNormalized(String trace, CharSink sink) {
+        String text = trace != null ? trace : "";
+        int length = text.length();
+
+        // 5. Truncated trace: ignore the suffix and the partial line before it
+        if (text.endsWith(XmlParserService.TRUNCATION_SUFFIX)) {
+            length = text.lastIndexOf('\n', length - XmlParserService.TRUNCATION_SUFFIX.length() - 1);
+            if (length < 0) length = 0;
+        }
+
+        int frames = 0;
+        int pos = 0;
+        while (pos < length) {
+            int end = text.indexOf('\n', pos);
+            if (end < 0 || end > length) end = length;
+
+            // Trim the line without creating a substring
+            int start = pos;
+            while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+            int stop = end;
+            while (stop > start && Character.isWhitespace(text.charAt(stop - 1))) stop--;
+
+            if (start < stop) {
+                if (text.startsWith("at ", start)) {
+                    int frameStart = skipModulePrefix(text, start + 3, stop);
+                    if (frames < maxFrames && !isIgnoredFrame(text, frameStart)) {
+                        sink.write("at ");
+                        normalize(text, frameStart, stop, sink);
+                        sink.write('\n');
+                        frames++;
+                    }
+                } else if (!text.startsWith("...", start)) {
+                    // Exception line, "Caused by: ...", "Suppressed: ..." or a message continuation line
+                    normalize(text, start, stop, sink);
+                    sink.write('\n');
+                }
+            }
+            pos = end + 1;
+        }
+    }
+
+    // "java.base/java.lang.Foo.bar(Foo.java:1)" -> "java.lang.Foo.bar(Foo.java:1)" (JDK 9+ module prefix, also "app//")
+    // Module names never contain '$', so the '/' of hidden classes (Foo$$Lambda$14/0x...) is not one
+    private int skipModulePrefix(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '/') {
+                while (i < to && text.charAt(i) == '/') i++;
+                return i;
+            }
+            if (c == '(' || c == '$') break;
+        }
+        return from;
+    }
+
+    private boolean isIgnoredFrame(String text, int frameStart) {
+        for (String prefix : ignoredFramePrefixes) {
+            if (text.startsWith(prefix, frameStart)) return true;
+        }
+        return false;
+    }
+
+    // Writes text[from, to) with volatile tokens replaced by '#'
+    private void normalize(String text, int from, int to, CharSink sink) {
+        int i = from;
+        boolean lastWasSpace = false;
+        while (i < to) {
+            char c = text.charAt(i);
+
+            // Date-time or hex-like token at a word start: 2024-01-05T10:11:12Z, 0x1f, UUIDs,
+            // long hex ids (only when it contains a digit)
+            if (isTokenStart(text, i, from)) {
+                int tokenEnd = dateTimeEnd(text, i, to);
+                if (tokenEnd < 0) tokenEnd = hexTokenEnd(text, i, to);
+                if (tokenEnd > 0) {
+                    sink.write('#');
+                    i = tokenEnd;
+                    lastWasSpace = false;
+                    continue;
+                }
+            }
+
+            // Object hash code: Foo@1b2c3d (the whole word after '@' must be hex: not user@example.com)
+            int hashEnd = c == '@' ? skipHex(text, i + 1, to) : -1;
+            if (hashEnd > i + 1 && (hashEnd >= to || !isIdentifierChar(text.charAt(hashEnd)))) {
+                sink.write('@');
+                sink.write('#');
+                i = hashEnd;
+                lastWasSpace = false;
+                continue;
+            }
+
+            // Lambda / synthetic / proxy suffix: lambda$run$0, Foo$1, $Proxy12
+            if (c == '$') {
+                int digits = text.startsWith("$Proxy", i) ? i + 6 : i + 1;
+                if (digits < to && isDigit(text.charAt(digits))) {
+                    sink.write(text, i, digits);
+                    sink.write('#');
+                    i = skipDigits(text, digits, to);
+                    lastWasSpace = false;
+                    continue;
+                }
+            }
+
+            // Standalone number: line numbers (Foo.java:42), ports, counts, ids. Not digits inside an identifier
+            if (isDigit(c) && (i == from || !isIdentifierChar(text.charAt(i - 1)))) {
+                sink.write('#');
+                i = skipDigits(text, i, to);
+                lastWasSpace = false;
+                continue;
+            }
+
+            if (Character.isWhitespace(c)) {
+                if (!lastWasSpace) sink.write(' ');
+                lastWasSpace = true;
+                i++;
+                continue;
+            }
+
+            sink.write(c);
+            lastWasSpace = false;
+            i++;
+        }
+    }
+
+    private boolean isTokenStart(String text, int i, int lineStart) {
+        return i == lineStart || !isIdentifierChar(text.charAt(i - 1));
+    }
+
+    /**
+     * End index of a volatile hex token starting at i, or -1 if there is none.
+     * "0x" + hex, or a run of hex digits / dashes of 8+ chars containing a digit (UUIDs, hashes).
+     */
+    private int hexTokenEnd(String text, int i, int to) {
+        if (text.startsWith("0x", i) && i + 2 < to && isHex(text.charAt(i + 2))) {
+            int j = i + 2;
+            while (j < to && isHex(text.charAt(j))) j++;
+            return j;
+        }
+
+        int j = i;
+        boolean hasDigit = false;
+        while (j < to && (isHex(text.charAt(j)) || text.charAt(j) == '-')) {
+            if (Character.isDigit(text.charAt(j))) hasDigit = true;
+            j++;
+        }
+        boolean wordEnds = j >= to || !isIdentifierChar(text.charAt(j));
+        return (j - i >= 8 && hasDigit && wordEnds) ? j : -1;
+    }
+
+    /**
+     * End index of a date or date-time starting at i, or -1 if there is none.
+     * yyyy-MM-dd, optionally followed by 'T' or ' ' + HH:mm[:ss[.fraction]] and a zone (Z, +01:00, +0100).
+     */
+    private int dateTimeEnd(String text, int i, int to) {
+        int j = digitsEnd(text, i, to, 4);
+        if (j < 0 || !isChar(text, j, to, '-')) return -1;
+        j = digitsEnd(text, j + 1, to, 2);
+        if (j < 0 || !isChar(text, j, to, '-')) return -1;
+        j = digitsEnd(text, j + 1, to, 2);
+        if (j < 0) return -1;
+
+        if (isChar(text, j, to, 'T') || isChar(text, j, to, ' ')) {
+            int time = timeEnd(text, j + 1, to);
+            if (time > 0) {
+                j = time;
+                if (isChar(text, j, to, 'Z')) {
+                    j++;
+                } else if (isChar(text, j, to, '+') || isChar(text, j, to, '-')) {
+                    int zone = digitsEnd(text, j + 1, to, 4); // +0100
+                    if (zone < 0) {
+                        zone = digitsEnd(text, j + 1, to, 2); // +01 or +01:00
+                        if (zone > 0 && isChar(text, zone, to, ':') && digitsEnd(text, zone + 1, to, 2) > 0) zone += 3;
+                    }
+                    if (zone > 0) j = zone;
+                }
+            }
+        }
+        return j >= to || !isIdentifierChar(text.charAt(j)) ? j : -1;
+    }
+
+    // HH:mm[:ss[.fraction]] starting at i -> its end, or -1
+    private int timeEnd(String text, int i, int to) {
+        int j = digitsEnd(text, i, to, 2);
+        if (j < 0 || !isChar(text, j, to, ':')) return -1;
+        j = digitsEnd(text, j + 1, to, 2);
+        if (j < 0) return -1;
+        if (isChar(text, j, to, ':') && digitsEnd(text, j + 1, to, 2) > 0) {
+            j += 3;
+            if ((isChar(text, j, to, '.') || isChar(text, j, to, ',')) && j + 1 < to && isDigit(text.charAt(j + 1))) {
+                j = skipDigits(text, j + 1, to);
+            }
+        }
+        return j;
+    }
+
+    // i + count if text has exactly `count` digits there (not followed by another digit), else -1
+    private static int digitsEnd(String text, int i, int to, int count) {
+        int end = i + count;
+        if (end > to) return -1;
+        for (int j = i; j < end; j++) {
+            if (!isDigit(text.charAt(j))) return -1;
+        }
+        return end < to && isDigit(text.charAt(end)) ? -1 : end;
+    }
+
+    private static boolean isChar(String text, int i, int to, char c) {
+        return i < to && text.charAt(i) == c;
+    }
+
+    private static int skipHex(String text, int i, int to) {
+        while (i < to && isHex(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipDigits(String text, int i, int to) {
+        while (i < to && isDigit(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    @FunctionalInterface
+    private interface CharSink {
+        void write(char c);
+
+        default void write(String s) {
+            write(s, 0, s.length());
+        }
+
+        default void write(String s, int from, int to) {
+            for (int i = from; i < to; i++) write(s.charAt(i));
+        }
+    }
+
+    /**
+     * Small reusable byte buffer in front of the digest.
+     * ASCII is written as one byte, other chars as their two UTF-16 bytes (only consistency matters here).
+     */
+    private static final class DigestSink implements CharSink {
+        private final byte[] buffer = new byte[512];
+        private int size;
+        private MessageDigest digest;
+
+        void reset(MessageDigest digest) {
+            this.digest = digest;
+            this.size = 0;
+        }
+
+        @Override
+        public void write(char c) {
+            if (size + 2 > buffer.length) flush();
+            if (c < 0x80) {
+                buffer[size++] = (byte) c;
+            } else {
+                buffer[size++] = (byte) (c >> 8);
+                buffer[size++] = (byte) c;
+            }
+        }
+
+        void flush() {
+            if (size > 0) {
+                digest.update(buffer, 0, size);
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.DailyFailureSketch;
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.repository.DailyFailureSketchRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps daily_failure_sketches in sync with ingestion. Like RollupService, all methods join the caller's transaction.
+ *
+ * A sketch cannot "forget" an element, so new runs are merged in, while rerun merges (failures fixed)
+ * and deletes rebuild the day from its remaining FAILED rows.
+ */
+@Service
+@Transactional
+public class FailureSketchService {
+
+    private final DailyFailureSketchRepository sketchRepository;
+
+    public FailureSketchService(DailyFailureSketchRepository sketchRepository) {
+        this.sketchRepository = sketchRepository;
+    }
+
+    // New run -> its failing tests / failures are merged into the day's sketches
+    public void recordNewRun(TestRun run, List<TestCase> testCases) {
+        HyperLogLog failedTests = new HyperLogLog();
+        HyperLogLog failures = new HyperLogLog();
+        for (TestCase tc : testCases) {
+            if (!"FAILED".equals(tc.getStatus())) continue;
+            // getId() on lazy references does not hit the DB
+            failedTests.addLong(tc.getTestDefinition().getId());
+            if (tc.getTestFailure() != null) failures.addLong(tc.getTestFailure().getId());
+        }
+        if (failedTests.isEmpty()) return;
+
+        Long projectId = run.getProject().getId();
+        LocalDate day = run.getExecutionDate().toLocalDate();
+
+        // 1. Make sure the row exists, 2. lock it, 3. merge (the dirty entity is written on flush)
+        sketchRepository.insertEmptyIfMissing(projectId, day, new HyperLogLog().toBytes());
+        DailyFailureSketch sketch = sketchRepository.findByProjectIdAndDay(projectId, day)
+                .orElseThrow(() -> new RuntimeException("Failure sketch missing for " + day));
+        HyperLogLog storedTests = HyperLogLog.fromBytes(sketch.getFailedTests());
+        HyperLogLog storedFailures = HyperLogLog.fromBytes(sketch.getFailures());
+        storedTests.merge(failedTests);
+        storedFailures.merge(failures);
+        sketch.setFailedTests(storedTests.toBytes());
+        sketch.setFailures(storedFailures.toBytes());
+    }
+
+    /**
+     * Rebuilds one day from its FAILED rows (after rerun merges and deletes).
+     * The caller must flush pending changes first (the rows are read with SQL).
+     */
+    public void recomputeDay(Long projectId, LocalDate day) {
+        sketchRepository.deleteDay(projectId, day);
+
+        HyperLogLog failedTests = new HyperLogLog();
+        HyperLogLog failures = new HyperLogLog();
+        for (Object[] row : sketchRepository.findFailedCases(projectId, day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+            failedTests.addLong(((Number) row[0]).longValue());
+            if (row[1] != null) failures.addLong(((Number) row[1]).longValue());
+        }
+
+        DailyFailureSketch sketch = new DailyFailureSketch();
+        sketch.setProjectId(projectId);
+        sketch.setDay(day);
+        sketch.setFailedTests(failedTests.toBytes());
+        sketch.setFailures(failures.toBytes());
+        sketchRepository.save(sketch);
+    }
+
+    /**
+     * Distinct failing tests and distinct failures of a project for the days after 'after', by merging the day sketches.
+     * Returns {failedTests, failures}.
+     */
+    @Transactional(readOnly = true)
+    public long[] estimateDistinct(Long projectId, LocalDate after) {
+        HyperLogLog failedTests = new HyperLogLog();
+        HyperLogLog failures = new HyperLogLog();
+        for (DailyFailureSketch sketch : sketchRepository.findAllByProjectIdAndDayAfter(projectId, after)) {
+            failedTests.merge(HyperLogLog.fromBytes(sketch.getFailedTests()));
+            failures.merge(HyperLogLog.fromBytes(sketch.getFailures()));
+        }
+        return new long[]{failedTests.estimate(), failures.estimate()};
+    }
+
+    // One-off backfill for days ingested before the sketches existed
+    public void backfillMissing() {
+        List<Object[]> days = sketchRepository.findDaysWithoutSketch();
+        for (Object[] row : days) {
+            Object day = row[1];
+            recomputeDay(((Number) row[0]).longValue(), day instanceof Date d ? d.toLocalDate() : (LocalDate) day);
+        }
+        if (!days.isEmpty()) {
+            System.out.println("Backfilled failure sketches for " + days.size() + " days");
+        }
+    }
+}
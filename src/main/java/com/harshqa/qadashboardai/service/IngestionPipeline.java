@@ -0,0 +1,288 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.model.IngestJob;
+import com.harshqa.qadashboardai.model.TestReport;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Async ingestion: the upload request only stores the file and returns a job id (202).
+ * The work then moves through 4 stages, each with its own bounded queue and worker threads:
+ *
+ *   parse -> failure dedup -> persist -> publish
+ *
+ * Backpressure: workers hand jobs to the next stage with a blocking put. When a later stage is slow,
+ * earlier workers wait, the parse queue fills up, and new uploads are rejected (429) instead of
+ * piling up in memory.
+ *
+ * Ordering: parsing runs in parallel, but a project's uploads are persisted one at a time and in upload
+ * order (same-day reruns are merged in that order). Each job gets a per-project sequence number at submit;
+ * after dedup it waits until all earlier jobs of its project went through, then goes to the persist lane
+ * of its project (one worker per lane, projects spread over qa.ingest.async.persist-workers lanes).
+ */
+@Component
+public class IngestionPipeline {
+
+    private final XmlParserService xmlParserService;
+    private final TestRunService testRunService;
+
+    private final Stage parseStage;
+    private final Stage dedupStage;
+    private final List<Stage> persistLanes = new ArrayList<>();
+    private final Stage publishStage;
+
+    // Job id -> Job (finished jobs are kept for a while so clients can poll the result)
+    private final Map<String, IngestJob> jobs = new ConcurrentHashMap<>();
+
+    // Project id -> upload order bookkeeping
+    private final Map<Long, ProjectOrder> projectOrders = new ConcurrentHashMap<>();
+    private final long retentionMinutes;
+
+    public IngestionPipeline(XmlParserService xmlParserService, TestRunService testRunService,
+                             @Value("${qa.ingest.async.queue-capacity:50}") int queueCapacity,
+                             @Value("${qa.ingest.async.parse-workers:4}") int parseWorkers,
+                             @Value("${qa.ingest.async.persist-workers:2}") int persistWorkers,
+                             @Value("${qa.ingest.async.job-retention-minutes:60}") long retentionMinutes) {
+        this.xmlParserService = xmlParserService;
+        this.testRunService = testRunService;
+        this.retentionMinutes = retentionMinutes;
+
+        // Built back to front, so each stage knows where to hand its jobs
+        this.publishStage = new Stage("publish", queueCapacity, 1, this::publish);
+        for (int i = 1; i <= Math.max(1, persistWorkers); i++) {
+            persistLanes.add(new Stage("persist-" + i, queueCapacity, 1, this::persist));
+        }
+        this.dedupStage = new Stage("dedup", queueCapacity, 1, this::deduplicate);
+        this.parseStage = new Stage("parse", queueCapacity, parseWorkers, this::parse);
+    }
+
+    /**
+     * Accepts the files as jobs, or throws RejectedExecutionException if the pipeline is full right now (429).
+     * More files than the parse queue can ever hold is a 413: retrying would never succeed.
+     */
+    public List<IngestJob> submit(MultipartFile[] files, Long projectId) {
+        if (files.length > parseStage.capacity) {
+            throw new ResponseStatusException(HttpStatus.CONTENT_TOO_LARGE,
+                    "Too many files in one upload: " + files.length + " (max " + parseStage.capacity + "), split it into smaller uploads");
+        }
+
+        evictFinishedJobs();
+
+        // Cheap check first: do not copy large files to disk only to reject them afterwards
+        if (parseStage.queue.remainingCapacity() < files.length) {
+            throw new RejectedExecutionException("Ingestion queue is full");
+        }
+
+        List<IngestJob> accepted = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            IngestJob job = new IngestJob(UUID.randomUUID().toString(), projectId, file.getOriginalFilename());
+            try {
+                // The multipart file is gone once the request ends, so keep our own copy
+                Path tempFile = Files.createTempFile("qa-ingest-", ".xml");
+                file.transferTo(tempFile);
+                job.setReportFile(tempFile);
+            } catch (Exception e) {
+                fail(job, e);
+                jobs.put(job.getId(), job);
+                accepted.add(job);
+                continue;
+            }
+
+            jobs.put(job.getId(), job);
+            job.setSequence(orderOf(projectId).nextSequence.getAndIncrement());
+            if (!parseStage.queue.offer(job)) {
+                // Lost the race for the last slots: this file is rejected, the earlier ones stay queued
+                fail(job, new RejectedExecutionException("Ingestion queue is full"));
+            }
+            accepted.add(job);
+        }
+        return accepted;
+    }
+
+    public Optional<IngestJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    // --- Stages ---
+
+    private void parse(IngestJob job) throws Exception {
+        job.setStatus("PARSING");
+        TestReport report;
+        try (InputStream in = Files.newInputStream(job.getReportFile())) {
+            report = xmlParserService.parse(in);
+        } finally {
+            deleteReportFile(job);
+        }
+        job.setReport(report);
+        dedupStage.queue.put(job);
+    }
+
+    private void deduplicate(IngestJob job) throws Exception {
+        job.setStatus("DEDUPLICATING");
+        job.setFailureIds(testRunService.resolveFailureIds(job.getReport().getFailureCatalog()));
+        release(job, true);
+    }
+
+    private void persist(IngestJob job) throws Exception {
+        job.setStatus("PERSISTING");
+        job.setEvent(testRunService.persistTestRun(job.getReport(), job.getProjectId(), job.getFailureIds()));
+        // The parsed report can be large; release it before waiting on the next stage
+        job.setReport(null);
+        job.setFailureIds(null);
+        publishStage.queue.put(job);
+    }
+
+    private void publish(IngestJob job) {
+        job.setStatus("PUBLISHING");
+        testRunService.publishRunEvent(job.getEvent());
+        job.setRunId(job.getEvent().getRunId());
+        job.setEvent(null);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setStatus("COMPLETED");
+        System.out.println("Ingest job " + job.getId() + " saved for Project " + job.getProjectId() + " with Run ID: " + job.getRunId());
+    }
+
+    // --- Per-project ordering ---
+
+    private static class ProjectOrder {
+        final AtomicLong nextSequence = new AtomicLong(1);      // Next number handed out at submit
+        long nextToRelease = 1;                                  // Next number allowed to go to persist
+        final TreeMap<Long, IngestJob> waiting = new TreeMap<>(); // Done with dedup (or failed), waiting for earlier ones
+    }
+
+    private ProjectOrder orderOf(Long projectId) {
+        return projectOrders.computeIfAbsent(projectId, k -> new ProjectOrder());
+    }
+
+    /**
+     * Marks the job as done with the stages before persist (forward = false: it failed and is skipped)
+     * and hands every job that is now next in line to the project's persist lane.
+     * The put happens under the project's lock, so jobs enter the lane in sequence order.
+     */
+    private void release(IngestJob job, boolean forward) throws InterruptedException {
+        if (job.getSequence() == 0) return;
+        ProjectOrder order = orderOf(job.getProjectId());
+        synchronized (order) {
+            if (job.isReleased()) return;
+            job.setReleased(true);
+            if (!forward) job.setReport(null); // Failed job: only keeps its place in line
+            order.waiting.put(job.getSequence(), job);
+            Stage lane = persistLanes.get(Math.floorMod(job.getProjectId().hashCode(), persistLanes.size()));
+            while (!order.waiting.isEmpty() && order.waiting.firstKey() == order.nextToRelease) {
+                IngestJob next = order.waiting.pollFirstEntry().getValue();
+                order.nextToRelease++;
+                if (next.getReport() != null) lane.queue.put(next);
+            }
+        }
+    }
+
+    private void fail(IngestJob job, Throwable e) {
+        // Skipped in the upload order, so later jobs of the project are not held back
+        try {
+            release(job, false);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        System.err.println("Ingest job " + job.getId() + " (" + job.getFileName() + ") failed: " + e.getMessage());
+        deleteReportFile(job);
+        job.setReport(null);
+        job.setFailureIds(null);
+        job.setEvent(null);
+        job.setError(e.getMessage());
+        job.setFinishedAt(LocalDateTime.now());
+        job.setStatus("FAILED");
+    }
+
+    private void deleteReportFile(IngestJob job) {
+        if (job.getReportFile() == null) return;
+        try {
+            Files.deleteIfExists(job.getReportFile());
+        } catch (Exception e) {
+            System.err.println("Warning: Could not delete temp file " + job.getReportFile());
+        }
+        job.setReportFile(null);
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(j -> j.getFinishedAt() != null && j.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parseStage.stop();
+        dedupStage.stop();
+        persistLanes.forEach(Stage::stop);
+        publishStage.stop();
+    }
+
+    @FunctionalInterface
+    private interface StageHandler {
+        void handle(IngestJob job) throws Exception;
+    }
+
+    /**
+     * A bounded queue plus a fixed set of worker threads draining it.
+     */
+    private class Stage {
+
+        private final BlockingQueue<IngestJob> queue;
+        private final int capacity;
+        private final List<Thread> workers = new ArrayList<>();
+
+        Stage(String name, int capacity, int workerCount, StageHandler handler) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.capacity = capacity;
+            for (int i = 1; i <= workerCount; i++) {
+                Thread worker = Thread.ofPlatform()
+                        .name("ingest-" + name + "-" + i)
+                        .daemon(true)
+                        .start(() -> run(handler));
+                workers.add(worker);
+            }
+        }
+
+        private void run(StageHandler handler) {
+            while (!Thread.currentThread().isInterrupted()) {
+                IngestJob job;
+                try {
+                    job = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    handler.handle(job);
+                } catch (InterruptedException e) {
+                    fail(job, e);
+                    return;
+                } catch (Exception e) {
+                    fail(job, e);
+                }
+            }
+        }
+
+        void stop() {
+            workers.forEach(Thread::interrupt);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.harshqa.qadashboardai.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * MinHash signatures over stack-trace shingles + LSH band keys.
+ *
+ * - Shingles: 3 consecutive word tokens of the lowercased trace (digits and punctuation are separators,
+ *   so line numbers / ids never matter), hashed to 64 bits.
+ * - Signature: for each of 64 hash functions, the minimum hash over all shingles.
+ *   The share of equal positions in two signatures estimates the Jaccard similarity of the shingle sets.
+ * - LSH: the signature is cut into 16 bands of 4 values. Traces that are similar are very likely to
+ *   share at least one band exactly, so candidates are found with 16 key lookups instead of a pairwise scan.
+ *   (Jaccard 0.8 -> ~99.9% chance to share a band, 0.3 -> ~12%)
+ */
+public final class MinHashSignature {
+
+    public static final int NUM_HASHES = 64;
+    public static final int BANDS = 16;
+    public static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+
+    private static final int MAX_CHARS = 4000; // Top of the trace is what identifies the failure
+    private static final int SHINGLE_SIZE = 3;
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            seed = mix64(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private MinHashSignature() {
+    }
+
+    public static int[] compute(String trace) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        String text = trace != null ? trace : "";
+        int length = Math.min(text.length(), MAX_CHARS);
+
+        // Rolling window of the last 3 token hashes
+        long[] window = new long[SHINGLE_SIZE];
+        int tokens = 0;
+        int i = 0;
+        while (i < length) {
+            // Next token = run of letters (plus '_' and '$', common in identifiers)
+            while (i < length && !isTokenChar(text.charAt(i))) i++;
+            if (i >= length) break;
+            long h = 0xcbf29ce484222325L; // FNV-1a
+            int start = i;
+            while (i < length && isTokenChar(text.charAt(i))) {
+                h ^= Character.toLowerCase(text.charAt(i));
+                h *= 0x100000001b3L;
+                i++;
+            }
+            if (i - start < 2) continue; // Single letters carry no signal
+
+            window[tokens % SHINGLE_SIZE] = h;
+            tokens++;
+            if (tokens >= SHINGLE_SIZE) {
+                long shingle = window[(tokens - 3) % SHINGLE_SIZE] * 31 * 31
+                        + window[(tokens - 2) % SHINGLE_SIZE] * 31
+                        + window[(tokens - 1) % SHINGLE_SIZE];
+                add(signature, shingle);
+            }
+        }
+
+        // Very short traces (< 3 tokens): the tokens themselves are the shingles
+        if (tokens > 0 && tokens < SHINGLE_SIZE) {
+            for (int t = 0; t < tokens; t++) add(signature, window[t]);
+        }
+        return signature;
+    }
+
+    private static void add(int[] signature, long shingle) {
+        for (int k = 0; k < NUM_HASHES; k++) {
+            int value = (int) (mix64(shingle ^ SEEDS[k]) >>> 33); // Non-negative int
+            if (value < signature[k]) signature[k] = value;
+        }
+    }
+
+    // Estimated Jaccard similarity (share of equal positions)
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int k = 0; k < NUM_HASHES; k++) {
+            if (a[k] == b[k]) equal++;
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    // One key per band; the band index is mixed in so equal values in different bands do not collide
+    public static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long h = band + 1;
+            for (int r = 0; r < ROWS_PER_BAND; r++) {
+                h = mix64(h * 31 + signature[band * ROWS_PER_BAND + r]);
+            }
+            keys[band] = h;
+        }
+        return keys;
+    }
+
+    public static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(NUM_HASHES * 4);
+        for (int value : signature) buffer.putInt(value);
+        return buffer.array();
+    }
+
+    public static int[] fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int[] signature = new int[NUM_HASHES];
+        for (int k = 0; k < NUM_HASHES; k++) signature[k] = buffer.getInt();
+        return signature;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$';
+    }
+
+    // SplitMix64 finalizer
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,187 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.dto.UploadResultDto;
+import com.harshqa.qadashboardai.model.FailureDefinition;
+import com.harshqa.qadashboardai.model.TestCaseDetail;
+import com.harshqa.qadashboardai.model.TestReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Multi-file upload handling.
+ * Parsing is the slow part of an upload, so files are parsed in parallel on virtual threads.
+ * Saving still happens one file at a time, in upload order, each in its own transaction:
+ * the "same day -> merge as rerun" logic in TestRunService depends on that order.
+ *
+ * Shard uploads (one build split over N machines) are different: they are assembled into ONE run.
+ */
+@Service
+public class ReportIngestionService {
+
+    private final XmlParserService xmlParserService;
+    private final TestRunService testRunService;
+
+    // Max files parsed (or waiting to be saved) at the same time. Bounds memory for big uploads.
+    private final int maxConcurrency;
+
+    public ReportIngestionService(XmlParserService xmlParserService, TestRunService testRunService,
+                                  @Value("${qa.ingest.max-parallel-files:8}") int maxConcurrency) {
+        this.xmlParserService = xmlParserService;
+        this.testRunService = testRunService;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    public List<UploadResultDto> ingestConcurrently(MultipartFile[] files, Long projectId) {
+        List<UploadResultDto> results = new ArrayList<>(files.length);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<TestReport>> parsedReports = new ArrayList<>(files.length);
+
+            for (int i = 0; i < files.length; i++) {
+                // 1. Keep up to maxConcurrency files ahead of the save loop parsing (or parsed and waiting).
+                // Parses are started here, in upload order, so file i is always started before we wait for it.
+                while (parsedReports.size() < files.length && parsedReports.size() < i + maxConcurrency) {
+                    MultipartFile file = files[parsedReports.size()];
+                    parsedReports.add(executor.submit(() -> {
+                        try (InputStream in = file.getInputStream()) {
+                            return xmlParserService.parse(in);
+                        }
+                    }));
+                }
+
+                // 2. Save in upload order as soon as the parse is done (per-file transaction)
+                String fileName = files[i].getOriginalFilename();
+                try {
+                    TestReport report = parsedReports.get(i).get();
+                    Long runId = testRunService.saveTestRun(report, projectId);
+                    System.out.println("Report " + fileName + " saved for Project " + projectId + " with ID: " + runId);
+                    results.add(UploadResultDto.builder().fileName(fileName).runId(runId).status("SAVED").build());
+                } catch (ExecutionException e) {
+                    results.add(failed(fileName, e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Upload interrupted while processing " + fileName);
+                } catch (Exception e) {
+                    // One bad file must not abort the rest of the batch
+                    results.add(failed(fileName, e));
+                }
+                parsedReports.set(i, null); // Saved: let the parsed report be collected
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Shard assembly: N shard reports of the same build -> ONE TestRun.
+     * Shards are parsed in parallel, combined in memory, and saved with a single saveTestRun call,
+     * so counts, failure catalog and the WebSocket event are produced once for the whole build.
+     * If any shard cannot be parsed, nothing is saved (a partial build would look like missing tests).
+     */
+    public Long assembleShards(MultipartFile[] files, Long projectId) {
+        List<TestReport> shards = new ArrayList<>(files.length);
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<TestReport>> parsedShards = new ArrayList<>(files.length);
+            for (MultipartFile file : files) {
+                parsedShards.add(executor.submit(() -> {
+                    permits.acquire();
+                    try (InputStream in = file.getInputStream()) {
+                        return xmlParserService.parse(in);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < files.length; i++) {
+                try {
+                    shards.add(parsedShards.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to parse shard " + files[i].getOriginalFilename() + ": " + e.getCause().getMessage(), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Shard upload interrupted");
+                }
+            }
+        }
+
+        TestReport combined = combineShards(shards);
+        Long runId = testRunService.saveTestRun(combined, projectId);
+        System.out.println("Assembled " + shards.size() + " shards (" + combined.getTotalTests() + " tests) into Run ID: " + runId);
+        return runId;
+    }
+
+    /**
+     * Merges shard reports into one report.
+     * Each shard numbers its failures ERR_1, ERR_2... on its own, so the catalogs are re-keyed and
+     * de-duplicated with the same key the parser uses (stack trace, or message if there is no trace).
+     */
+    static TestReport combineShards(List<TestReport> shards) {
+        TestReport combined = new TestReport();
+        Map<String, FailureDefinition> keyToDefinition = new HashMap<>();
+        int errorCounter = 1;
+
+        for (TestReport shard : shards) {
+            // Earliest shard start = start of the build. Durations add up (total test time across shards).
+            if (shard.getTimestamp() != null
+                    && (combined.getTimestamp() == null || shard.getTimestamp().isBefore(combined.getTimestamp()))) {
+                combined.setTimestamp(shard.getTimestamp());
+            }
+            combined.setTotalDuration(combined.getTotalDuration() + shard.getTotalDuration());
+
+            // Shard Ref ID -> Combined Ref ID
+            Map<String, String> refRemap = new HashMap<>();
+            for (FailureDefinition def : shard.getFailureCatalog()) {
+                String uniqueKey = def.getStackTrace() == null || def.getStackTrace().isEmpty() ? def.getMessage() : def.getStackTrace();
+                FailureDefinition target = keyToDefinition.get(uniqueKey);
+                if (target == null) {
+                    target = FailureDefinition.builder()
+                            .id("ERR_" + errorCounter++)
+                            .message(def.getMessage())
+                            .stackTrace(def.getStackTrace())
+                            .occurrenceCount(0)
+                            .build();
+                    keyToDefinition.put(uniqueKey, target);
+                    combined.getFailureCatalog().add(target);
+                }
+                target.setOccurrenceCount(target.getOccurrenceCount() + def.getOccurrenceCount());
+                refRemap.put(def.getId(), target.getId());
+            }
+
+            combined.getPassedTests().addAll(shard.getPassedTests());
+            combined.getSkippedTests().addAll(shard.getSkippedTests());
+            for (TestCaseDetail failed : shard.getFailedTests()) {
+                failed.setFailureRefId(refRemap.get(failed.getFailureRefId()));
+                combined.getFailedTests().add(failed);
+            }
+        }
+
+        combined.setPassCount(combined.getPassedTests().size());
+        combined.setFailCount(combined.getFailedTests().size());
+        combined.setSkipCount(combined.getSkippedTests().size());
+        combined.setTotalTests(combined.getPassCount() + combined.getFailCount() + combined.getSkipCount());
+        return combined;
+    }
+
+    private UploadResultDto failed(String fileName, Throwable cause) {
+        System.err.println("Failed to process report " + fileName + ": " + cause.getMessage());
+        return UploadResultDto.builder()
+                .fileName(fileName)
+                .status("FAILED")
+                .error(cause.getMessage())
+                .build();
+    }
+}
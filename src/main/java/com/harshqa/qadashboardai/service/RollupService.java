@@ -0,0 +1,145 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.RunDurationHistogram;
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.entity.Project;
+import com.harshqa.qadashboardai.repository.DailyProjectRollupRepository;
+import com.harshqa.qadashboardai.repository.ProjectRepository;
+import com.harshqa.qadashboardai.repository.RunDurationHistogramRepository;
+import com.harshqa.qadashboardai.repository.TestRunRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps daily_project_rollup (and the per-run duration histograms) in sync with ingestion.
+ * All methods join the caller's transaction, so the rollup commits (or rolls back) with the run itself.
+ */
+@Service
+@Transactional
+public class RollupService {
+
+    private static final int HISTOGRAM_BACKFILL_CHUNK = 50;
+
+    private final DailyProjectRollupRepository rollupRepository;
+    private final ProjectRepository projectRepository;
+    private final RunDurationHistogramRepository histogramRepository;
+    private final TestRunRepository testRunRepository;
+    private final RunResultService runResultService;
+    private final TransactionTemplate transactionTemplate;
+
+    public RollupService(DailyProjectRollupRepository rollupRepository, ProjectRepository projectRepository,
+                         RunDurationHistogramRepository histogramRepository, TestRunRepository testRunRepository,
+                         RunResultService runResultService, TransactionTemplate transactionTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.projectRepository = projectRepository;
+        this.histogramRepository = histogramRepository;
+        this.testRunRepository = testRunRepository;
+        this.runResultService = runResultService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // New run -> add its counts and its (non-skipped) test durations to the day, and store its duration histogram
+    public void recordNewRun(TestRun run, List<TestCase> testCases) {
+        double sum = 0.0;
+        long count = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0.0;
+        DurationHistogram histogram = new DurationHistogram();
+        for (TestCase tc : testCases) {
+            if ("SKIPPED".equals(tc.getStatus())) continue;
+            double d = tc.getDuration();
+            sum += d;
+            count++;
+            min = Math.min(min, d);
+            max = Math.max(max, d);
+            histogram.record(d);
+        }
+
+        rollupRepository.addRun(run.getProject().getId(), run.getExecutionDate().toLocalDate(), 1,
+                run.getTotalTests(), run.getPassCount(), run.getFailCount(), run.getSkipCount(),
+                sum, count, count > 0 ? min : 0.0, max);
+        saveHistogram(run, histogram);
+    }
+
+    // Deleted runs -> their histograms go too (the rollup itself is rebuilt with recomputeDay)
+    public void forgetRuns(Collection<Long> runIds) {
+        if (runIds.isEmpty()) return;
+        histogramRepository.deleteAllByRunIds(runIds);
+    }
+
+    // Rerun merge -> failures flipped to PASSED (durations do not change)
+    public void recordFixedFailures(TestRun run, int fixedCount) {
+        if (fixedCount <= 0) return;
+        rollupRepository.applyFixedFailures(run.getProject().getId(), run.getExecutionDate().toLocalDate(), fixedCount);
+    }
+
+    /**
+     * Recomputes one day from the remaining runs (used after deleting runs: min/max cannot be subtracted).
+     * The caller must flush pending deletes first.
+     */
+    public void recomputeDay(Long projectId, LocalDate day) {
+        rollupRepository.deleteDay(projectId, day);
+        rollupRepository.rebuildMissing(projectId, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    // One-off backfill: creates rollup rows for every day that has runs but no rollup yet (e.g. data from before rollups)
+    public void backfillMissing() {
+        LocalDateTime from = LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.now().plusYears(100);
+        for (Project project : projectRepository.findAll()) {
+            int created = rollupRepository.rebuildMissing(project.getId(), from, to);
+            if (created > 0) {
+                System.out.println("Backfilled " + created + " daily rollups for Project " + project.getName());
+            }
+        }
+    }
+
+    /**
+     * One-off backfill of duration histograms for runs stored before they existed.
+     * Results have to be decoded in Java (compact blocks), so it runs in small chunks, one transaction each.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillHistograms() {
+        int total = 0;
+        while (true) {
+            Integer done = transactionTemplate.execute(status -> {
+                List<Long> runIds = histogramRepository.findRunIdsWithoutHistogram(HISTOGRAM_BACKFILL_CHUNK);
+                if (runIds.isEmpty()) return 0;
+
+                List<TestRun> runs = testRunRepository.findAllById(runIds);
+                runResultService.attachCompactResults(runs);
+                for (TestRun run : runs) {
+                    DurationHistogram histogram = new DurationHistogram();
+                    for (TestCase tc : run.getAllTestCases()) {
+                        if (!"SKIPPED".equals(tc.getStatus())) histogram.record(tc.getDuration());
+                    }
+                    saveHistogram(run, histogram);
+                }
+                return runs.size();
+            });
+            if (done == null || done == 0) break;
+            total += done;
+        }
+        if (total > 0) {
+            System.out.println("Backfilled duration histograms for " + total + " runs");
+        }
+    }
+
+    private void saveHistogram(TestRun run, DurationHistogram histogram) {
+        RunDurationHistogram row = new RunDurationHistogram();
+        row.setRunId(run.getId());
+        row.setProjectId(run.getProject().getId());
+        row.setDay(run.getExecutionDate().toLocalDate());
+        row.setEncodingVersion(DurationHistogram.VERSION);
+        row.setData(histogram.toBytes());
+        histogramRepository.save(row);
+    }
+}
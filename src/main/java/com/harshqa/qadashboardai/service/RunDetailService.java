@@ -0,0 +1,247 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.TestDefinition;
+import com.harshqa.qadashboardai.entity.TestFailure;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.model.RunResultEntry;
+import com.harshqa.qadashboardai.repository.TestCaseJdbcRepository;
+import com.harshqa.qadashboardai.repository.TestDefinitionRepository;
+import com.harshqa.qadashboardai.repository.TestFailureRepository;
+import com.harshqa.qadashboardai.repository.TestRunRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Run detail in the TestReport shape: a failure dictionary (each failure once) + test cases that
+ * reference it by id. Test cases are paged (ordered by test id) and can be filtered by status / class.
+ *
+ * 1. loadPage(): counts the matches (pages past the last one are a 400), then merges the stored rows and
+ *    the compact block of the run (both sorted by test id), reading at most (page + 1) * size rows,
+ *    and loads names / failures only for the page
+ * 2. write(): streams the page as JSON, field by field (no intermediate DTO tree)
+ */
+@Service
+public class RunDetailService {
+
+    private static final Set<String> STATUSES = Set.of("PASSED", "FAILED", "SKIPPED");
+
+    private final TestRunRepository testRunRepository;
+    private final TestCaseJdbcRepository testCaseJdbcRepository;
+    private final TestDefinitionRepository testDefinitionRepository;
+    private final TestFailureRepository testFailureRepository;
+    private final RunResultService runResultService;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+
+    public RunDetailService(TestRunRepository testRunRepository, TestCaseJdbcRepository testCaseJdbcRepository,
+                            TestDefinitionRepository testDefinitionRepository, TestFailureRepository testFailureRepository,
+                            RunResultService runResultService, ObjectMapper objectMapper,
+                            @Value("${qa.api.run-detail.max-page-size:2000}") int maxPageSize) {
+        this.testRunRepository = testRunRepository;
+        this.testCaseJdbcRepository = testCaseJdbcRepository;
+        this.testDefinitionRepository = testDefinitionRepository;
+        this.testFailureRepository = testFailureRepository;
+        this.runResultService = runResultService;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public record Page(TestRun run, List<RunResultEntry> testCases, List<TestFailure> failures,
+                       Map<Long, Integer> occurrences, int page, int size, long totalMatching, boolean hasMore) {
+    }
+
+    @Transactional(readOnly = true)
+    public Page loadPage(Long runId, String status, String className, int page, int size) {
+        TestRun run = testRunRepository.findById(runId)
+                .orElseThrow(() -> new RuntimeException("Run not found: " + runId));
+
+        if (status != null) {
+            status = status.toUpperCase();
+            if (!STATUSES.contains(status)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + status);
+            }
+        }
+        if (className != null && className.isBlank()) className = null;
+        if (page < 0) page = 0;
+        int pageSize = Math.clamp(size, 1, maxPageSize);
+
+        // 1. Count the matches first (stored rows + block entries) so out-of-range pages are rejected before reading anything
+        long totalMatching = testCaseJdbcRepository.countRunRows(runId, status, className);
+        RunResultCodec.Results block = "FAILED".equals(status) ? null : runResultService.loadBlock(runId);
+        Set<Integer> classIds = block != null && className != null
+                ? new HashSet<>(testDefinitionRepository.findIdsByClassName(run.getProject().getId(), className))
+                : null;
+        if (block != null) {
+            for (int i = 0; i < block.size(); i++) {
+                if (matches(block, i, status, classIds)) totalMatching++;
+            }
+        }
+
+        // Page 0 is always allowed (an empty run / filter still gets its run header)
+        long lastPage = totalMatching == 0 ? 0 : (totalMatching - 1) / pageSize;
+        if (page > lastPage) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Page " + page + " is out of range (last page: " + lastPage + ")");
+        }
+        int end = Math.toIntExact((page + 1L) * pageSize);
+
+        // 2. Stored rows (failures, plus everything for runs saved without a block), first `end` matches
+        List<RunResultEntry> rows = testCaseJdbcRepository.findRunRows(runId, status, className, end);
+
+        // Block entries (PASSED / SKIPPED only) matching the same filters, first `end` matches
+        List<RunResultEntry> blockEntries = new ArrayList<>();
+        if (block != null) {
+            for (int i = 0; i < block.size() && blockEntries.size() < end; i++) {
+                if (!matches(block, i, status, classIds)) continue;
+                blockEntries.add(new RunResultEntry(block.definitionId(i), null, null,
+                        block.duration(i), block.status(i), null));
+            }
+        }
+
+        // 3. Sort-merge both (each sorted by test id) and cut out the page
+        List<RunResultEntry> pageEntries = new ArrayList<>(pageSize);
+        int r = 0;
+        int b = 0;
+        for (int position = 0; position < end && (r < rows.size() || b < blockEntries.size()); position++) {
+            RunResultEntry next;
+            if (b >= blockEntries.size()
+                    || (r < rows.size() && rows.get(r).definitionId() <= blockEntries.get(b).definitionId())) {
+                next = rows.get(r++);
+            } else {
+                next = blockEntries.get(b++);
+            }
+            if (position >= end - pageSize) pageEntries.add(next);
+        }
+
+        // 4. Names of the block entries in the page (rows come with theirs)
+        Set<Integer> unnamed = pageEntries.stream()
+                .filter(e -> e.className() == null)
+                .map(RunResultEntry::definitionId)
+                .collect(Collectors.toSet());
+        if (!unnamed.isEmpty()) {
+            Map<Integer, TestDefinition> definitions = testDefinitionRepository.findAllById(unnamed).stream()
+                    .collect(Collectors.toMap(TestDefinition::getId, Function.identity()));
+            pageEntries.replaceAll(e -> {
+                TestDefinition d = e.className() == null ? definitions.get(e.definitionId()) : null;
+                return d != null ? e.withNames(d.getClassName(), d.getTestName()) : e;
+            });
+        }
+
+        // 5. Failure dictionary: only the failures referenced by the page, with their occurrences in the run
+        Set<Long> failureIds = pageEntries.stream()
+                .map(RunResultEntry::failureId)
+                .filter(id -> id != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<TestFailure> failures = failureIds.isEmpty() ? List.of() : testFailureRepository.findAllById(failureIds);
+        Map<Long, Integer> occurrences = testCaseJdbcRepository.countFailureOccurrences(runId, failureIds);
+
+        return new Page(run, pageEntries, failures, occurrences, page, pageSize, totalMatching,
+                (long) end < totalMatching);
+    }
+
+    private static boolean matches(RunResultCodec.Results block, int i, String status, Set<Integer> classIds) {
+        if (status != null && !status.equals(block.status(i))) return false;
+        return classIds == null || classIds.contains(block.definitionId(i));
+    }
+
+    // Streams the page as JSON: { run, failureCatalog, testCases, paging }
+    public void write(Page page, OutputStream out) {
+        TestRun run = page.run();
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+
+            json.writeName("run");
+            json.writeStartObject();
+            json.writeName("id");
+            json.writeNumber(run.getId());
+            json.writeName("executionDate");
+            json.writeString(String.valueOf(run.getExecutionDate()));
+            json.writeName("status");
+            json.writeString(run.getStatus());
+            json.writeName("totalTests");
+            json.writeNumber(run.getTotalTests());
+            json.writeName("passCount");
+            json.writeNumber(run.getPassCount());
+            json.writeName("failCount");
+            json.writeNumber(run.getFailCount());
+            json.writeName("skipCount");
+            json.writeNumber(run.getSkipCount());
+            json.writeName("totalDuration");
+            json.writeNumber(run.getTotalDuration());
+            json.writeName("hasAiAnalysis");
+            json.writeBoolean(run.getAiAnalysis() != null && !run.getAiAnalysis().isEmpty());
+            json.writeEndObject();
+
+            // Same fields as FailureDefinition (id = failure id)
+            json.writeName("failureCatalog");
+            json.writeStartArray();
+            for (TestFailure failure : page.failures()) {
+                json.writeStartObject();
+                json.writeName("id");
+                json.writeString(String.valueOf(failure.getId()));
+                json.writeName("message");
+                json.writeString(failure.getMessage());
+                json.writeName("stackTrace");
+                json.writeString(failure.getStackTrace());
+                json.writeName("category");
+                json.writeString(failure.getCategory());
+                json.writeName("occurrenceCount");
+                json.writeNumber(page.occurrences().getOrDefault(failure.getId(), 0));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            // Same fields as TestCaseDetail
+            json.writeName("testCases");
+            json.writeStartArray();
+            for (RunResultEntry entry : page.testCases()) {
+                json.writeStartObject();
+                json.writeName("testName");
+                json.writeString(entry.testName());
+                json.writeName("className");
+                json.writeString(entry.className());
+                json.writeName("duration");
+                json.writeNumber(entry.duration());
+                json.writeName("status");
+                json.writeString(entry.status());
+                json.writeName("failureRefId");
+                if (entry.failureId() != null) {
+                    json.writeString(String.valueOf(entry.failureId()));
+                } else {
+                    json.writeNull();
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeName("paging");
+            json.writeStartObject();
+            json.writeName("page");
+            json.writeNumber(page.page());
+            json.writeName("size");
+            json.writeNumber(page.size());
+            json.writeName("totalMatching");
+            json.writeNumber(page.totalMatching());
+            json.writeName("hasMore");
+            json.writeBoolean(page.hasMore());
+            json.writeEndObject();
+
+            json.writeEndObject();
+        }
+    }
+}
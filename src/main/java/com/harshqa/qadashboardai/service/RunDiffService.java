@@ -0,0 +1,221 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.dto.RunDiffDto;
+import com.harshqa.qadashboardai.dto.RunDiffEntryDto;
+import com.harshqa.qadashboardai.entity.TestDefinition;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.model.RunResultEntry;
+import com.harshqa.qadashboardai.repository.TestCaseJdbcRepository;
+import com.harshqa.qadashboardai.repository.TestDefinitionRepository;
+import com.harshqa.qadashboardai.repository.TestRunRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Run-to-run diff (A = base, B = head).
+ *
+ * Both runs are read as a sequence of results ordered by test definition id (stored rows + compact block,
+ * which are both sorted that way), so the diff is a single sort-merge pass without any entity graph.
+ * Only the entries that end up in the response get their names loaded.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RunDiffService {
+
+    private final TestRunRepository testRunRepository;
+    private final TestCaseJdbcRepository testCaseJdbcRepository;
+    private final TestDefinitionRepository testDefinitionRepository;
+    private final RunResultService runResultService;
+    private final int maxItems;
+
+    public RunDiffService(TestRunRepository testRunRepository, TestCaseJdbcRepository testCaseJdbcRepository,
+                          TestDefinitionRepository testDefinitionRepository, RunResultService runResultService,
+                          @Value("${qa.api.run-diff.max-items:1000}") int maxItems) {
+        this.testRunRepository = testRunRepository;
+        this.testCaseJdbcRepository = testCaseJdbcRepository;
+        this.testDefinitionRepository = testDefinitionRepository;
+        this.runResultService = runResultService;
+        this.maxItems = maxItems;
+    }
+
+    public RunDiffDto diff(Long baseRunId, Long headRunId, int limit) {
+        TestRun base = testRunRepository.findById(baseRunId)
+                .orElseThrow(() -> new RuntimeException("Run not found: " + baseRunId));
+        TestRun head = testRunRepository.findById(headRunId)
+                .orElseThrow(() -> new RuntimeException("Run not found: " + headRunId));
+        if (!base.getProject().getId().equals(head.getProject().getId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Runs belong to different projects");
+        }
+        int max = Math.clamp(limit, 0, maxItems);
+
+        ResultCursor a = new ResultCursor(testCaseJdbcRepository.findRunResults(baseRunId), runResultService.loadBlock(baseRunId));
+        ResultCursor b = new ResultCursor(testCaseJdbcRepository.findRunResults(headRunId), runResultService.loadBlock(headRunId));
+
+        List<Pair> newlyFailing = new ArrayList<>();
+        List<Pair> newlyFixed = new ArrayList<>();
+        List<Pair> stillFailing = new ArrayList<>();
+        List<Pair> added = new ArrayList<>();
+        List<Pair> removed = new ArrayList<>();
+        int[] counts = new int[6]; // newlyFailing, newlyFixed, stillFailing, added, removed, unchanged
+        double totalDelta = 0.0;
+        // Min-heap on |delta|: keeps the `max` largest changes
+        Comparator<Pair> byDelta = Comparator.comparingDouble(p -> Math.abs(p.head().duration() - p.base().duration()));
+        PriorityQueue<Pair> largestDeltas = new PriorityQueue<>(byDelta);
+
+        // 1. Sort-merge on test definition id
+        while (a.hasNext() || b.hasNext()) {
+            int cmp = !a.hasNext() ? 1 : !b.hasNext() ? -1 : Integer.compare(a.peekId(), b.peekId());
+            if (cmp < 0) {
+                counts[4]++;
+                addCapped(removed, new Pair(a.next(), null), max);
+            } else if (cmp > 0) {
+                counts[3]++;
+                addCapped(added, new Pair(null, b.next()), max);
+            } else {
+                Pair pair = new Pair(a.next(), b.next());
+                boolean failedBefore = "FAILED".equals(pair.base().status());
+                boolean failedNow = "FAILED".equals(pair.head().status());
+                if (failedBefore && failedNow) {
+                    counts[2]++;
+                    addCapped(stillFailing, pair, max);
+                } else if (failedNow) {
+                    counts[0]++;
+                    addCapped(newlyFailing, pair, max);
+                } else if (failedBefore && "PASSED".equals(pair.head().status())) {
+                    counts[1]++;
+                    addCapped(newlyFixed, pair, max);
+                } else {
+                    counts[5]++;
+                }
+
+                // 2. Duration deltas: only meaningful when the test passed both times
+                if ("PASSED".equals(pair.base().status()) && "PASSED".equals(pair.head().status())) {
+                    totalDelta += pair.head().duration() - pair.base().duration();
+                    if (max > 0) {
+                        largestDeltas.add(pair);
+                        if (largestDeltas.size() > max) largestDeltas.poll();
+                    }
+                }
+            }
+        }
+
+        List<Pair> deltas = new ArrayList<>(largestDeltas);
+        deltas.sort(byDelta.reversed());
+
+        // 3. Names for everything returned
+        Set<Integer> ids = new HashSet<>();
+        for (List<Pair> list : List.of(newlyFailing, newlyFixed, stillFailing, added, removed, deltas)) {
+            list.forEach(p -> ids.add(p.definitionId()));
+        }
+        Map<Integer, TestDefinition> definitions = testDefinitionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(TestDefinition::getId, Function.identity()));
+
+        return RunDiffDto.builder()
+                .baseRunId(baseRunId)
+                .headRunId(headRunId)
+                .newlyFailingCount(counts[0])
+                .newlyFixedCount(counts[1])
+                .stillFailingCount(counts[2])
+                .addedCount(counts[3])
+                .removedCount(counts[4])
+                .unchangedCount(counts[5])
+                .newlyFailing(toDtos(newlyFailing, definitions))
+                .newlyFixed(toDtos(newlyFixed, definitions))
+                .stillFailing(toDtos(stillFailing, definitions))
+                .added(toDtos(added, definitions))
+                .removed(toDtos(removed, definitions))
+                .totalDurationDelta(Math.round(totalDelta * 1000.0) / 1000.0)
+                .durationDeltas(toDtos(deltas, definitions))
+                .build();
+    }
+
+    private static void addCapped(List<Pair> list, Pair pair, int max) {
+        if (list.size() < max) list.add(pair);
+    }
+
+    private static List<RunDiffEntryDto> toDtos(List<Pair> pairs, Map<Integer, TestDefinition> definitions) {
+        return pairs.stream().map(p -> {
+            TestDefinition d = definitions.get(p.definitionId());
+            RunResultEntry base = p.base();
+            RunResultEntry head = p.head();
+            return RunDiffEntryDto.builder()
+                    .className(d != null ? d.getClassName() : null)
+                    .testName(d != null ? d.getTestName() : null)
+                    .baseStatus(base != null ? base.status() : null)
+                    .headStatus(head != null ? head.status() : null)
+                    .baseDuration(base != null ? base.duration() : null)
+                    .headDuration(head != null ? head.duration() : null)
+                    .durationDelta(base != null && head != null
+                            ? Math.round((head.duration() - base.duration()) * 1000.0) / 1000.0 : null)
+                    .baseFailureId(base != null ? base.failureId() : null)
+                    .headFailureId(head != null ? head.failureId() : null)
+                    .build();
+        }).toList();
+    }
+
+    private record Pair(RunResultEntry base, RunResultEntry head) {
+        int definitionId() {
+            return base != null ? base.definitionId() : head.definitionId();
+        }
+    }
+
+    /**
+     * Results of one run in test definition id order: merges the stored rows with the compact block.
+     * A test reported twice in the same run counts once (a failure wins).
+     */
+    private static final class ResultCursor {
+        private final List<RunResultEntry> rows;
+        private final RunResultCodec.Results block;
+        private int row;
+        private int entry;
+
+        ResultCursor(List<RunResultEntry> rows, RunResultCodec.Results block) {
+            this.rows = rows;
+            this.block = block;
+        }
+
+        boolean hasNext() {
+            return row < rows.size() || (block != null && entry < block.size());
+        }
+
+        RunResultEntry next() {
+            RunResultEntry result = rawNext();
+            while (hasNext() && peekId() == result.definitionId()) {
+                RunResultEntry duplicate = rawNext();
+                if ("FAILED".equals(duplicate.status()) && !"FAILED".equals(result.status())) result = duplicate;
+            }
+            return result;
+        }
+
+        private boolean rowFirst() {
+            if (row >= rows.size()) return false;
+            if (block == null || entry >= block.size()) return true;
+            return rows.get(row).definitionId() <= block.definitionId(entry);
+        }
+
+        private int peekId() {
+            return rowFirst() ? rows.get(row).definitionId() : block.definitionId(entry);
+        }
+
+        private RunResultEntry rawNext() {
+            if (rowFirst()) return rows.get(row++);
+            RunResultEntry result = new RunResultEntry(block.definitionId(entry), null, null,
+                    block.duration(entry), block.status(entry), null);
+            entry++;
+            return result;
+        }
+    }
+}
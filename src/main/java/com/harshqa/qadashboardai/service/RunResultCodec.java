@@ -0,0 +1,187 @@
+package com.harshqa.qadashboardai.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Binary format of RunResultBlock.data (version 1).
+ *
+ *   varint  n                        number of results
+ *   n x     varint  id delta         test definition ids, sorted ascending, delta to the previous id
+ *   ceil(n/8) bytes skipped bitset   bit i set = result i is SKIPPED (otherwise PASSED)
+ *   n x     varint  duration (ms)    durations quantized to whole milliseconds
+ *
+ * A 10k-test run is typically ~30-40 KB instead of 10k rows (each with its own tuple header and index entries).
+ * Sorted ids also make per-test lookups and run-to-run comparisons a simple merge of two arrays.
+ */
+public final class RunResultCodec {
+
+    public static final int VERSION = 1;
+
+    private RunResultCodec() {
+    }
+
+    /**
+     * Decoded block: parallel arrays, sorted by definition id.
+     */
+    public static final class Results {
+        private final int[] definitionIds;
+        private final BitSet skipped;
+        private final int[] durationMillis;
+
+        public Results(int[] definitionIds, BitSet skipped, int[] durationMillis) {
+            this.definitionIds = definitionIds;
+            this.skipped = skipped;
+            this.durationMillis = durationMillis;
+        }
+
+        public int size() {
+            return definitionIds.length;
+        }
+
+        public int definitionId(int i) {
+            return definitionIds[i];
+        }
+
+        public boolean isSkipped(int i) {
+            return skipped.get(i);
+        }
+
+        public String status(int i) {
+            return skipped.get(i) ? "SKIPPED" : "PASSED";
+        }
+
+        // Seconds, like TestCase.duration
+        public double duration(int i) {
+            return durationMillis[i] / 1000.0;
+        }
+    }
+
+    /**
+     * Encodes the given results. The arrays do not need to be sorted (they are sorted here, together).
+     */
+    public static byte[] encode(int[] definitionIds, boolean[] skipped, double[] durations) {
+        int n = definitionIds.length;
+
+        // 1. Sort the entries by definition id (index permutation keeps the 3 arrays aligned)
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(definitionIds[a], definitionIds[b]));
+
+        ByteWriter out = new ByteWriter(16 + n * 4);
+        out.writeVarint(n);
+
+        // 2. Ids as deltas (small numbers -> 1-2 bytes each)
+        int previous = 0;
+        for (int i = 0; i < n; i++) {
+            int id = definitionIds[order[i]];
+            out.writeVarint(id - previous);
+            previous = id;
+        }
+
+        // 3. Skipped bitset (fixed length, so the reader knows where the durations start)
+        BitSet bits = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            if (skipped[order[i]]) bits.set(i);
+        }
+        byte[] bitBytes = Arrays.copyOf(bits.toByteArray(), (n + 7) / 8);
+        out.writeBytes(bitBytes);
+
+        // 4. Durations in ms
+        for (int i = 0; i < n; i++) {
+            double seconds = durations[order[i]];
+            long millis = Math.round(Math.max(0.0, seconds) * 1000.0);
+            out.writeVarint((int) Math.min(millis, Integer.MAX_VALUE));
+        }
+        return out.toByteArray();
+    }
+
+    public static Results decode(byte[] data) {
+        ByteReader in = new ByteReader(data);
+        int n = in.readVarint();
+
+        int[] ids = new int[n];
+        int previous = 0;
+        for (int i = 0; i < n; i++) {
+            previous += in.readVarint();
+            ids[i] = previous;
+        }
+
+        BitSet skipped = BitSet.valueOf(in.readBytes((n + 7) / 8));
+
+        int[] millis = new int[n];
+        for (int i = 0; i < n; i++) {
+            millis[i] = in.readVarint();
+        }
+        return new Results(ids, skipped, millis);
+    }
+
+    // --- Varint helpers (unsigned LEB128: 7 bits per byte, high bit = "more bytes follow") ---
+
+    private static final class ByteWriter {
+        private byte[] buffer;
+        private int size;
+
+        ByteWriter(int initialCapacity) {
+            this.buffer = new byte[Math.max(16, initialCapacity)];
+        }
+
+        void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    private static final class ByteReader {
+        private final byte[] data;
+        private int position;
+
+        ByteReader(byte[] data) {
+            this.data = data;
+        }
+
+        int readVarint() {
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position >= data.length) {
+                    throw new IllegalStateException("Corrupt result block: unexpected end of data");
+                }
+                b = data[position++];
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return result;
+        }
+
+        byte[] readBytes(int length) {
+            if (position + length > data.length) {
+                throw new IllegalStateException("Corrupt result block: unexpected end of data");
+            }
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.RunResultBlock;
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestDefinition;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.repository.RunResultBlockRepository;
+import com.harshqa.qadashboardai.repository.TestDefinitionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes and reads RunResultBlocks (compact passed/skipped results of a run).
+ * Decoded results are plain (never persisted) TestCase objects, so callers see the same
+ * shape whether a run was stored as rows or as a block.
+ */
+@Service
+@Transactional
+public class RunResultService {
+
+    private final RunResultBlockRepository blockRepository;
+    private final TestDefinitionRepository testDefinitionRepository;
+
+    public RunResultService(RunResultBlockRepository blockRepository, TestDefinitionRepository testDefinitionRepository) {
+        this.blockRepository = blockRepository;
+        this.testDefinitionRepository = testDefinitionRepository;
+    }
+
+    // Stores the PASSED/SKIPPED results of a new run as one block (no-op when there are none)
+    public void saveBlock(Long runId, List<TestCase> results) {
+        if (results.isEmpty()) return;
+
+        int n = results.size();
+        int[] definitionIds = new int[n];
+        boolean[] skipped = new boolean[n];
+        double[] durations = new double[n];
+
+        RunResultBlock block = new RunResultBlock();
+        double min = Double.MAX_VALUE;
+        double max = 0.0;
+        for (int i = 0; i < n; i++) {
+            TestCase tc = results.get(i);
+            definitionIds[i] = tc.getTestDefinition().getId();
+            skipped[i] = "SKIPPED".equals(tc.getStatus());
+            durations[i] = tc.getDuration();
+
+            if (skipped[i]) {
+                block.setSkipCount(block.getSkipCount() + 1);
+            } else {
+                block.setPassCount(block.getPassCount() + 1);
+                block.setDurationSum(block.getDurationSum() + tc.getDuration());
+                block.setDurationCount(block.getDurationCount() + 1);
+                min = Math.min(min, tc.getDuration());
+                max = Math.max(max, tc.getDuration());
+            }
+        }
+
+        block.setRunId(runId);
+        block.setEncodingVersion(RunResultCodec.VERSION);
+        block.setEntryCount(n);
+        block.setDurationMin(block.getDurationCount() > 0 ? min : null);
+        block.setDurationMax(block.getDurationCount() > 0 ? max : null);
+        block.setData(RunResultCodec.encode(definitionIds, skipped, durations));
+        blockRepository.save(block);
+    }
+
+    /**
+     * Fills TestRun.compactResults of the given runs (one query for the blocks, one for the test names).
+     */
+    @Transactional(readOnly = true)
+    public void attachCompactResults(Collection<TestRun> runs) {
+        if (runs.isEmpty()) return;
+        Map<Long, TestRun> runsById = runs.stream().collect(Collectors.toMap(TestRun::getId, Function.identity()));
+        List<RunResultBlock> blocks = blockRepository.findAllByRunIdIn(runsById.keySet());
+        if (blocks.isEmpty()) return;
+
+        // 1. Decode all blocks and collect the definition ids they use
+        List<RunResultCodec.Results> decoded = new ArrayList<>(blocks.size());
+        Set<Integer> definitionIds = new HashSet<>();
+        for (RunResultBlock block : blocks) {
+            RunResultCodec.Results results = RunResultCodec.decode(block.getData());
+            decoded.add(results);
+            for (int i = 0; i < results.size(); i++) definitionIds.add(results.definitionId(i));
+        }
+
+        // 2. Bulk load the names
+        Map<Integer, TestDefinition> definitions = testDefinitionRepository.findAllById(definitionIds).stream()
+                .collect(Collectors.toMap(TestDefinition::getId, Function.identity()));
+
+        // 3. Rebuild the results as (transient) TestCases
+        for (int b = 0; b < blocks.size(); b++) {
+            TestRun run = runsById.get(blocks.get(b).getRunId());
+            RunResultCodec.Results results = decoded.get(b);
+            List<TestCase> cases = new ArrayList<>(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                TestCase tc = new TestCase();
+                tc.setTestDefinition(definitions.get(results.definitionId(i)));
+                tc.setStatus(results.status(i));
+                tc.setDuration(results.duration(i));
+                tc.setTestRun(run);
+                cases.add(tc);
+            }
+            run.setCompactResults(cases);
+        }
+    }
+
+    // Decoded block of one run (sorted by definition id), or null when the run has none
+    @Transactional(readOnly = true)
+    public RunResultCodec.Results loadBlock(Long runId) {
+        return blockRepository.findById(runId)
+                .map(block -> RunResultCodec.decode(block.getData()))
+                .orElse(null);
+    }
+
+    public void deleteBlocks(Collection<Long> runIds) {
+        if (runIds.isEmpty()) return;
+        blockRepository.deleteAllByRunIds(runIds);
+    }
+}
@@ -0,0 +1,43 @@
+package com.harshqa.qadashboardai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harshqa.qadashboardai.model.TestKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * In-process cache: (project, class, test) -> test_definitions id.
+ * Test suites are mostly the same from run to run, so after the first upload of a project
+ * almost every test resolves without touching the database.
+ * Like FailureFingerprintCache, only committed ids should be put here.
+ */
+@Component
+public class TestDefinitionCache {
+
+    private final Cache<TestKey, Integer> cache;
+
+    public TestDefinitionCache(@Value("${qa.ingest.test-definition-cache-size:200000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Returns the cached ids for the given keys (misses are simply absent from the result).
+     */
+    public Map<TestKey, Integer> getAll(Collection<TestKey> keys) {
+        return cache.getAllPresent(keys);
+    }
+
+    public void putAll(Map<TestKey, Integer> keyToId) {
+        cache.putAll(keyToId);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,74 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.model.TestKey;
+import com.harshqa.qadashboardai.repository.TestDefinitionJdbcRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves (class, test) names of a project to test_definitions ids, creating the missing ones.
+ * Same steps as failure fingerprints: cache -> bulk SELECT -> bulk INSERT of the new ones + SELECT.
+ */
+@Service
+public class TestDefinitionService {
+
+    private final TestDefinitionJdbcRepository definitionJdbcRepository;
+    private final TestDefinitionCache definitionCache;
+
+    public TestDefinitionService(TestDefinitionJdbcRepository definitionJdbcRepository, TestDefinitionCache definitionCache) {
+        this.definitionJdbcRepository = definitionJdbcRepository;
+        this.definitionCache = definitionCache;
+    }
+
+    @Transactional
+    public Map<TestKey, Integer> resolveIds(Long projectId, Collection<TestKey> keys) {
+        // 1. In-process cache
+        Set<TestKey> distinct = new LinkedHashSet<>(keys);
+        Map<TestKey, Integer> ids = new HashMap<>(definitionCache.getAll(distinct));
+
+        List<TestKey> missing = new ArrayList<>(distinct);
+        missing.removeIf(ids::containsKey);
+        if (missing.isEmpty()) return ids;
+
+        // 2. Bulk lookup for the misses
+        Map<TestKey, Integer> found = definitionJdbcRepository.findIds(projectId, missing);
+        ids.putAll(found);
+        missing.removeIf(ids::containsKey);
+
+        // 3. Create the new ones. Sorted, so concurrent uploads lock the unique index entries in the same order
+        if (!missing.isEmpty()) {
+            missing.sort(Comparator.comparing(TestKey::className).thenComparing(TestKey::testName));
+            definitionJdbcRepository.insertIgnoringDuplicates(projectId, missing);
+            found.putAll(definitionJdbcRepository.findIds(projectId, missing));
+            ids.putAll(found);
+        }
+
+        // 4. Remember the ids read from the DB, but only once they are committed
+        rememberAfterCommit(found);
+        return ids;
+    }
+
+    private void rememberAfterCommit(Map<TestKey, Integer> keyToId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            definitionCache.putAll(keyToId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                definitionCache.putAll(keyToId);
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.repository.TestDurationBaselineJdbcRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps test_duration_baselines (EWMA duration mean / variance per test) in sync with ingestion.
+ * Like RollupService, all methods join the caller's transaction.
+ *
+ * Only PASSED executions are samples: failures often end early or hit a timeout, skips take no time.
+ * Baselines only move forward: deleting a run does not un-apply its samples (EWMA cannot be reversed),
+ * the old samples simply fade out.
+ */
+@Service
+@Transactional
+public class TestDurationBaselineService {
+
+    private final TestDurationBaselineJdbcRepository baselineJdbcRepository;
+
+    public TestDurationBaselineService(TestDurationBaselineJdbcRepository baselineJdbcRepository) {
+        this.baselineJdbcRepository = baselineJdbcRepository;
+    }
+
+    // New run -> one sample per test (the mean, when a test ran more than once in the run)
+    public void recordNewRun(TestRun run, List<TestCase> testCases) {
+        Map<Integer, double[]> sums = new HashMap<>(); // definition id -> {sum, count}
+        for (TestCase tc : testCases) {
+            if (!"PASSED".equals(tc.getStatus())) continue;
+            double[] sum = sums.computeIfAbsent(tc.getTestDefinition().getId(), k -> new double[2]);
+            sum[0] += tc.getDuration();
+            sum[1]++;
+        }
+
+        Map<Integer, Double> durations = new HashMap<>(sums.size());
+        sums.forEach((id, sum) -> durations.put(id, sum[0] / sum[1]));
+        baselineJdbcRepository.recordSamples(run.getProject().getId(), run.getId(), run.getExecutionDate(), durations);
+    }
+}
@@ -0,0 +1,206 @@
+package com.harshqa.qadashboardai.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Binary format of the per-test execution history (test_histories).
+ *
+ * A history is a compacted part (data) plus an append-only tail:
+ * - tail: one record per appended execution, written at ingest with a plain bytea append in SQL
+ *     varint runId, varint epoch second (UTC), byte status, varint duration (ms)
+ * - data (version 1), rewritten when the tail is folded in, entries sorted by run id:
+ *     varint  n                          number of entries
+ *     n x     varint run id delta
+ *     n x     zigzag varint epoch second delta (execution dates do not always follow run ids)
+ *     varint  r, r x (byte status, varint length)   status column, run-length encoded
+ *     n x     varint duration (ms)
+ * A year of daily runs is ~2 KB per test, most of it durations (the status column of a stable test is a few bytes).
+ *
+ * When a run appears twice (a rerun merge re-records it), the last appended entry wins.
+ */
+public final class TestHistoryCodec {
+
+    public static final int VERSION = 1;
+
+    private static final String[] STATUSES = {"PASSED", "FAILED", "SKIPPED"};
+
+    private TestHistoryCodec() {
+    }
+
+    public record Entry(long runId, long epochSecond, byte status, int durationMillis) {
+
+        public String statusName() {
+            return STATUSES[status];
+        }
+
+        // Seconds, like TestCase.duration
+        public double duration() {
+            return durationMillis / 1000.0;
+        }
+    }
+
+    public static byte statusCode(String status) {
+        return switch (status) {
+            case "FAILED" -> 1;
+            case "SKIPPED" -> 2;
+            default -> 0;
+        };
+    }
+
+    public static int toMillis(double seconds) {
+        return (int) Math.min(Math.round(Math.max(0.0, seconds) * 1000.0), Integer.MAX_VALUE);
+    }
+
+    // One tail record
+    public static byte[] encodeTailRecord(Entry entry) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+        writeVarint(out, entry.runId());
+        writeVarint(out, entry.epochSecond());
+        out.write(entry.status());
+        writeVarint(out, entry.durationMillis());
+        return out.toByteArray();
+    }
+
+    // Compacted part; entries must be sorted by run id without duplicates (as returned by decode)
+    public static byte[] encode(List<Entry> entries) {
+        int n = entries.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + n * 5);
+        writeVarint(out, n);
+
+        long previousRun = 0;
+        for (Entry e : entries) {
+            writeVarint(out, e.runId() - previousRun);
+            previousRun = e.runId();
+        }
+
+        long previousSecond = 0;
+        for (Entry e : entries) {
+            long delta = e.epochSecond() - previousSecond;
+            writeVarint(out, (delta << 1) ^ (delta >> 63)); // zigzag
+            previousSecond = e.epochSecond();
+        }
+
+        // Status runs
+        List<int[]> runs = new ArrayList<>();
+        for (Entry e : entries) {
+            int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (last != null && last[0] == e.status()) last[1]++;
+            else runs.add(new int[]{e.status(), 1});
+        }
+        writeVarint(out, runs.size());
+        for (int[] run : runs) {
+            out.write(run[0]);
+            writeVarint(out, run[1]);
+        }
+
+        for (Entry e : entries) writeVarint(out, e.durationMillis());
+        return out.toByteArray();
+    }
+
+    /**
+     * Compacted part + tail, sorted by run id, one entry per run (the latest appended one).
+     * Run id order is ingest order; timelines re-sort by epochSecond.
+     * Either side may be null.
+     */
+    public static List<Entry> decode(byte[] data, byte[] tail) {
+        List<Entry> entries = new ArrayList<>();
+        if (data != null && data.length > 0) decodeCompacted(data, entries);
+        if (tail != null) {
+            int[] position = {0};
+            while (position[0] < tail.length) {
+                long runId = readVarint(tail, position);
+                long second = readVarint(tail, position);
+                byte status = readByte(tail, position);
+                int millis = (int) readVarint(tail, position);
+                entries.add(new Entry(runId, second, status, millis));
+            }
+        }
+
+        // Stable sort keeps the append order within a run id: keep the last one
+        entries.sort(Comparator.comparingLong(Entry::runId));
+        List<Entry> result = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            if (!result.isEmpty() && result.get(result.size() - 1).runId() == e.runId()) {
+                result.set(result.size() - 1, e);
+            } else {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    private static void decodeCompacted(byte[] data, List<Entry> target) {
+        int[] position = {0};
+        int n = (int) readVarint(data, position);
+
+        long[] runIds = new long[n];
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            previous += readVarint(data, position);
+            runIds[i] = previous;
+        }
+
+        long[] seconds = new long[n];
+        long previousSecond = 0;
+        for (int i = 0; i < n; i++) {
+            long zigzag = readVarint(data, position);
+            previousSecond += (zigzag >>> 1) ^ -(zigzag & 1);
+            seconds[i] = previousSecond;
+        }
+
+        byte[] statuses = new byte[n];
+        int runCount = (int) readVarint(data, position);
+        int index = 0;
+        for (int r = 0; r < runCount; r++) {
+            byte status = readByte(data, position);
+            long length = readVarint(data, position);
+            if (index + length > n) {
+                throw new IllegalStateException("Corrupt test history: status runs exceed the entry count");
+            }
+            for (long k = 0; k < length; k++) statuses[index++] = status;
+        }
+
+        for (int i = 0; i < n; i++) {
+            target.add(new Entry(runIds[i], seconds[i], statuses[i], (int) readVarint(data, position)));
+        }
+    }
+
+    // --- Varints (unsigned LEB128, same scheme as RunResultCodec) ---
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position[0] >= data.length || shift > 63) {
+                throw new IllegalStateException("Corrupt test history: unexpected end of data");
+            }
+            b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static byte readByte(byte[] data, int[] position) {
+        if (position[0] >= data.length) {
+            throw new IllegalStateException("Corrupt test history: unexpected end of data");
+        }
+        byte b = data[position[0]++];
+        if (b < 0 || b >= STATUSES.length) {
+            throw new IllegalStateException("Corrupt test history: unknown status " + b);
+        }
+        return b;
+    }
+}
@@ -0,0 +1,194 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.dto.TestHistoryDto;
+import com.harshqa.qadashboardai.dto.TestHistoryEntryDto;
+import com.harshqa.qadashboardai.entity.Project;
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestDefinition;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.repository.ProjectRepository;
+import com.harshqa.qadashboardai.repository.TestDefinitionRepository;
+import com.harshqa.qadashboardai.repository.TestHistoryJdbcRepository;
+import com.harshqa.qadashboardai.repository.TestHistoryRepository;
+import com.harshqa.qadashboardai.repository.TestRunRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps test_histories (per-test status / duration timeline) in sync with ingestion and reads it back.
+ * Like RollupService, the write methods join the caller's transaction.
+ *
+ * - New run: one record appended per test (a failure wins when a test ran twice in the run)
+ * - Rerun merge: the fixed tests are appended again for the same run, the newer record wins
+ * - Deleted runs are not removed from the histories; the read drops runs that no longer exist
+ */
+@Service
+@Transactional
+public class TestHistoryService {
+
+    private static final int BACKFILL_CHUNK = 20;
+
+    private final TestHistoryRepository historyRepository;
+    private final TestHistoryJdbcRepository historyJdbcRepository;
+    private final TestDefinitionRepository testDefinitionRepository;
+    private final TestRunRepository testRunRepository;
+    private final ProjectRepository projectRepository;
+    private final RunResultService runResultService;
+    private final TransactionTemplate transactionTemplate;
+    private final int compactAfter;
+
+    public TestHistoryService(TestHistoryRepository historyRepository, TestHistoryJdbcRepository historyJdbcRepository,
+                              TestDefinitionRepository testDefinitionRepository, TestRunRepository testRunRepository,
+                              ProjectRepository projectRepository, RunResultService runResultService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${qa.analytics.test-history.compact-after:32}") int compactAfter) {
+        this.historyRepository = historyRepository;
+        this.historyJdbcRepository = historyJdbcRepository;
+        this.testDefinitionRepository = testDefinitionRepository;
+        this.testRunRepository = testRunRepository;
+        this.projectRepository = projectRepository;
+        this.runResultService = runResultService;
+        this.transactionTemplate = transactionTemplate;
+        this.compactAfter = compactAfter;
+    }
+
+    // Appends the given results of the run (all of a new run, or the re-recorded ones of a merge)
+    public void recordRun(TestRun run, Collection<TestCase> testCases) {
+        long epochSecond = run.getExecutionDate().toEpochSecond(ZoneOffset.UTC);
+
+        // 1. One record per test
+        Map<Integer, TestCase> perTest = new HashMap<>();
+        for (TestCase tc : testCases) {
+            perTest.merge(tc.getTestDefinition().getId(), tc,
+                    (existing, next) -> "FAILED".equals(existing.getStatus()) ? existing : next);
+        }
+        Map<Integer, byte[]> records = new HashMap<>(perTest.size());
+        perTest.forEach((id, tc) -> records.put(id, TestHistoryCodec.encodeTailRecord(new TestHistoryCodec.Entry(
+                run.getId(), epochSecond, TestHistoryCodec.statusCode(tc.getStatus()),
+                TestHistoryCodec.toMillis(tc.getDuration())))));
+
+        // 2. Append in SQL, then fold long tails into the compacted part
+        historyJdbcRepository.append(run.getProject().getId(), run.getId(), TestHistoryCodec.VERSION, records);
+        compact(records.keySet());
+    }
+
+    private void compact(Collection<Integer> definitionIds) {
+        List<Object[]> rows = historyJdbcRepository.lockForCompaction(definitionIds, compactAfter);
+        if (rows.isEmpty()) return;
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            List<TestHistoryCodec.Entry> entries = TestHistoryCodec.decode((byte[]) row[1], (byte[]) row[2]);
+            updates.add(new Object[]{TestHistoryCodec.encode(entries), entries.size(), TestHistoryCodec.VERSION, row[0]});
+        }
+        historyJdbcRepository.saveCompacted(updates);
+    }
+
+    /**
+     * Timeline of one test over the last `days` days (all of it when days is null).
+     */
+    @Transactional(readOnly = true)
+    public TestHistoryDto getHistory(Long projectId, String className, String testName, Integer days) {
+        TestDefinition definition = testDefinitionRepository
+                .findByProjectIdAndClassNameAndTestName(projectId, className, testName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Test not found: " + className + "#" + testName));
+
+        // 1. One row, decoded
+        List<TestHistoryCodec.Entry> entries = historyRepository.findById(definition.getId())
+                .map(h -> TestHistoryCodec.decode(h.getData(), h.getTail()))
+                .orElse(List.of());
+
+        // 2. Window + runs that still exist
+        long since = days != null ? LocalDateTime.now().minusDays(days).toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        // Timeline order is execution time, not run id: a late upload of an older report goes where it ran
+        List<TestHistoryCodec.Entry> inWindow = entries.stream()
+                .filter(e -> e.epochSecond() >= since)
+                .sorted(Comparator.comparingLong(TestHistoryCodec.Entry::epochSecond)
+                        .thenComparingLong(TestHistoryCodec.Entry::runId))
+                .toList();
+        Set<Long> existing = inWindow.isEmpty() ? Set.of()
+                : new HashSet<>(historyRepository.findExistingRunIds(inWindow.stream().map(TestHistoryCodec.Entry::runId).toList()));
+
+        // 3. Timeline + counts (flips are counted in execution order)
+        List<TestHistoryEntryDto> timeline = new ArrayList<>();
+        int pass = 0, fail = 0, skip = 0, changes = 0;
+        String lastOutcome = null;
+        for (TestHistoryCodec.Entry e : inWindow) {
+            if (!existing.contains(e.runId())) continue;
+            String status = e.statusName();
+            timeline.add(new TestHistoryEntryDto(e.runId(),
+                    LocalDateTime.ofEpochSecond(e.epochSecond(), 0, ZoneOffset.UTC), status, e.duration()));
+            switch (status) {
+                case "FAILED" -> fail++;
+                case "SKIPPED" -> skip++;
+                default -> pass++;
+            }
+            if (!"SKIPPED".equals(status)) {
+                if (lastOutcome != null && !lastOutcome.equals(status)) changes++;
+                lastOutcome = status;
+            }
+        }
+
+        return TestHistoryDto.builder()
+                .className(definition.getClassName())
+                .testName(definition.getTestName())
+                .totalRuns(timeline.size())
+                .passCount(pass)
+                .failCount(fail)
+                .skipCount(skip)
+                .statusChanges(changes)
+                .entries(timeline)
+                .build();
+    }
+
+    /**
+     * Replays runs stored before test_histories existed, newest first, in chunks (one transaction each).
+     * Progress is the oldest run recorded per project, so an interrupted backfill resumes where it stopped.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillMissing() {
+        int total = 0;
+        for (Project project : projectRepository.findAll()) {
+            // Walk down from the oldest recorded run (runs without any test case never get recorded)
+            Long oldest = historyRepository.findOldestRecordedRunId(project.getId());
+            long[] before = {oldest != null ? oldest : Long.MAX_VALUE};
+            while (true) {
+                Integer done = transactionTemplate.execute(status -> {
+                    List<Long> runIds = historyRepository.findRunIdsBefore(project.getId(), before[0], BACKFILL_CHUNK);
+                    if (runIds.isEmpty()) return 0;
+
+                    List<TestRun> runs = new ArrayList<>(testRunRepository.findAllById(runIds));
+                    runResultService.attachCompactResults(runs);
+                    runs.sort((a, b) -> Long.compare(b.getId(), a.getId()));
+                    for (TestRun run : runs) {
+                        recordRun(run, run.getAllTestCases());
+                    }
+                    before[0] = runIds.get(runIds.size() - 1);
+                    return runs.size();
+                });
+                if (done == null || done == 0) break;
+                total += done;
+            }
+        }
+        if (total > 0) {
+            System.out.println("Backfilled test histories for " + total + " runs");
+        }
+    }
+}
@@ -1,30 +1,46 @@
 package com.harshqa.qadashboardai.service;
 
+import com.harshqa.qadashboardai.dto.RunPageDto;
+import com.harshqa.qadashboardai.dto.RunSummaryDto;
 import com.harshqa.qadashboardai.dto.TestRunEvent;
 import com.harshqa.qadashboardai.entity.Project;
 import com.harshqa.qadashboardai.entity.TestCase;
 import com.harshqa.qadashboardai.entity.TestFailure;
 import com.harshqa.qadashboardai.entity.TestRun;
 import com.harshqa.qadashboardai.model.FailureDefinition;
+import com.harshqa.qadashboardai.model.TestKey;
 import com.harshqa.qadashboardai.model.TestReport;
 import com.harshqa.qadashboardai.model.TestCaseDetail;
 import com.harshqa.qadashboardai.repository.ProjectRepository;
+import com.harshqa.qadashboardai.repository.TestCaseJdbcRepository;
+import com.harshqa.qadashboardai.repository.TestDefinitionRepository;
+import com.harshqa.qadashboardai.repository.TestFailureJdbcRepository;
 import com.harshqa.qadashboardai.repository.TestFailureRepository;
 import com.harshqa.qadashboardai.repository.TestRunRepository;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,12 +50,73 @@ public class TestRunService {
     private final TestFailureRepository testFailureRepository;
     private final ProjectRepository projectRepository;
     private final SimpMessagingTemplate messagingTemplate;
-
-    public TestRunService(TestRunRepository testRunRepository, TestFailureRepository testFailureRepository, ProjectRepository projectRepository, SimpMessagingTemplate messagingTemplate) {
+    private final TestCaseJdbcRepository testCaseJdbcRepository;
+    private final TestFailureJdbcRepository testFailureJdbcRepository;
+    private final FailureFingerprintCache failureCache;
+    private final RollupService rollupService;
+    private final TestStatsService testStatsService;
+    private final TestDurationBaselineService durationBaselineService;
+    private final FailureSketchService failureSketchService;
+    private final FailureCountService failureCountService;
+    private final TestHistoryService testHistoryService;
+    private final FailureBitmapService failureBitmapService;
+    private final TestDefinitionService testDefinitionService;
+    private final TestDefinitionRepository testDefinitionRepository;
+    private final RunResultService runResultService;
+    private final FailureClassifier failureClassifier;
+    private final FailureFingerprinter failureFingerprinter;
+    private final FailureClusterService failureClusterService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // true  -> test cases are written with JDBC batches (fast path for big runs)
+    // false -> test cases are saved through the JPA cascade (one INSERT per row)
+    private final boolean bulkInsertEnabled;
+
+    // true  -> only failures are test_cases rows, passed/skipped results go into one RunResultBlock per run
+    // false -> every result is a test_cases row
+    private final boolean compactResultsEnabled;
+
+    // Upper bound for run lists / pages (the history page used to download every run ever recorded)
+    private final int maxPageSize;
+
+    public TestRunService(TestRunRepository testRunRepository, TestFailureRepository testFailureRepository, ProjectRepository projectRepository,
+                          SimpMessagingTemplate messagingTemplate, TestCaseJdbcRepository testCaseJdbcRepository,
+                          TestFailureJdbcRepository testFailureJdbcRepository, FailureFingerprintCache failureCache,
+                          RollupService rollupService, TestStatsService testStatsService,
+                          TestDurationBaselineService durationBaselineService, FailureSketchService failureSketchService,
+                          FailureCountService failureCountService, TestHistoryService testHistoryService,
+                          FailureBitmapService failureBitmapService,
+                          TestDefinitionService testDefinitionService, TestDefinitionRepository testDefinitionRepository,
+                          RunResultService runResultService, FailureClassifier failureClassifier,
+                          FailureFingerprinter failureFingerprinter, FailureClusterService failureClusterService,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${qa.ingest.bulk-insert:true}") boolean bulkInsertEnabled,
+                          @Value("${qa.ingest.compact-results:true}") boolean compactResultsEnabled,
+                          @Value("${qa.api.runs.max-page-size:200}") int maxPageSize) {
         this.testRunRepository = testRunRepository;
         this.testFailureRepository = testFailureRepository;
         this.projectRepository = projectRepository;
         this.messagingTemplate = messagingTemplate;
+        this.testCaseJdbcRepository = testCaseJdbcRepository;
+        this.testFailureJdbcRepository = testFailureJdbcRepository;
+        this.failureCache = failureCache;
+        this.rollupService = rollupService;
+        this.testStatsService = testStatsService;
+        this.durationBaselineService = durationBaselineService;
+        this.failureSketchService = failureSketchService;
+        this.failureCountService = failureCountService;
+        this.testHistoryService = testHistoryService;
+        this.failureBitmapService = failureBitmapService;
+        this.testDefinitionService = testDefinitionService;
+        this.testDefinitionRepository = testDefinitionRepository;
+        this.runResultService = runResultService;
+        this.failureClassifier = failureClassifier;
+        this.failureFingerprinter = failureFingerprinter;
+        this.failureClusterService = failureClusterService;
+        this.eventPublisher = eventPublisher;
+        this.bulkInsertEnabled = bulkInsertEnabled;
+        this.compactResultsEnabled = compactResultsEnabled;
+        this.maxPageSize = maxPageSize;
     }
 
     private Project getProject(Long projectId) {
@@ -47,26 +124,99 @@ public class TestRunService {
                 .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
     }
 
+    /**
+     * Run summaries for lists (dashboard widget, history page): never loads test cases.
+     * limit -> the latest N runs, days -> only runs of the last N days. Both are capped at the max page size;
+     * longer histories are read page by page with getRunPage.
+     */
     @Transactional(readOnly = true)
-    public List<TestRun> getRuns(Long projectId, Integer limit, Integer days) {
-        Project project = getProject(projectId);
-        // Scenario A: Dashboard Widget -> Get Latest 5
-        if (limit != null && limit == 5) {
-            return testRunRepository.findTop5ByProjectOrderByExecutionDateDesc(project);
+    public List<RunSummaryDto> getRunSummaries(Long projectId, Integer limit, Integer days) {
+        getProject(projectId); // Unknown project -> error, like before
+        int size = limit != null && limit > 0 ? Math.min(limit, maxPageSize) : maxPageSize;
+        return toSummaries(testRunRepository.findSummaries(projectId, since(days), PageRequest.of(0, size)));
+    }
+
+    /**
+     * One page of run summaries, newest first. Keyset pagination on (executionDate, id): each page is an index
+     * range scan that starts where the previous one ended, however deep the user pages.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public RunPageDto getRunPage(Long projectId, String cursor, int size, Integer days) {
+        getProject(projectId);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        // One extra row tells whether there is a next page
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+
+        List<Object[]> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = testRunRepository.findSummaries(projectId, since(days), page);
+        } else {
+            RunCursor position = RunCursor.decode(cursor);
+            rows = testRunRepository.findSummariesBefore(projectId, since(days), position.executionDate(), position.id(), page);
+        }
+
+        List<RunSummaryDto> items = toSummaries(rows.size() > pageSize ? rows.subList(0, pageSize) : rows);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            RunSummaryDto last = items.getLast();
+            nextCursor = new RunCursor(last.getExecutionDate(), last.getId()).encode();
+        }
+        return RunPageDto.builder().items(items).nextCursor(nextCursor).build();
+    }
+
+    private LocalDateTime since(Integer days) {
+        // No nullable query parameters: "no filter" is a date before any run
+        return days != null && days > 0 ? LocalDateTime.now().minusDays(days) : LocalDateTime.of(1970, 1, 1, 0, 0);
+    }
+
+    private List<RunSummaryDto> toSummaries(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> {
+                    int totalTests = ((Number) row[3]).intValue();
+                    int passCount = ((Number) row[4]).intValue();
+                    int skipCount = ((Number) row[6]).intValue();
+                    return RunSummaryDto.builder()
+                            .id((Long) row[0])
+                            .executionDate((LocalDateTime) row[1])
+                            .totalDuration(((Number) row[2]).doubleValue())
+                            .totalTests(totalTests)
+                            .passCount(passCount)
+                            .failCount(((Number) row[5]).intValue())
+                            .skipCount(skipCount)
+                            .status(TestRun.statusOf(totalTests, passCount, skipCount))
+                            .hasAiAnalysis((Boolean) row[7])
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Opaque page cursor: base64url("<executionDate>|<id>")
+    private record RunCursor(LocalDateTime executionDate, Long id) {
+
+        String encode() {
+            String raw = executionDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
-        // Scenario B: History Page -> Filter by Last X Days
-        if (days != null && days > 0) {
-            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
-            return testRunRepository.findAllByProjectAndExecutionDateAfterOrderByExecutionDateDesc(project, cutoffDate);
+
+        static RunCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.lastIndexOf('|');
+                return new RunCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
         }
-        // Default: Return all for project
-        return testRunRepository.findAllByProject(project, Sort.by(Sort.Direction.DESC, "executionDate"));
     }
 
     @Transactional(readOnly = true)
     public TestRun getRunById(Long id) {
-        return testRunRepository.findById(id)
+        TestRun run = testRunRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Run not found: " + id));
+        runResultService.attachCompactResults(List.of(run));
+        return run;
     }
 
     /**
@@ -77,9 +227,25 @@ public class TestRunService {
      */
     @Transactional // Ensures either everything saves or nothing saves (Atomic)
     public Long saveTestRun(TestReport report, Long projectId) {
+        TestRunEvent event = persistTestRun(report, projectId, null);
+        publishRunEvent(event);
+        return event.getRunId();
+    }
 
-        // Fetch Project
-        Project project = projectRepository.findById(projectId)
+    /**
+     * The "persist" part of saveTestRun, without publishing.
+     * Used directly by the async ingestion pipeline, which runs failure de-duplication
+     * (resolveFailureIds) and publishing as separate stages.
+     *
+     * @param failureIds Report Ref ID -> TestFailure id, or null to resolve them here
+     * @return the event describing the saved run (ready to publish)
+     */
+    @Transactional
+    public TestRunEvent persistTestRun(TestReport report, Long projectId, Map<String, Long> failureIds) {
+
+        // Fetch Project, locked until commit: two uploads for the same day must not both miss the
+        // existing run below and create two runs (sync upload, pipeline and durable queue all end up here)
+        Project project = projectRepository.findByIdForUpdate(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
 
         LocalDateTime reportDate = report.getTimestamp();
@@ -102,38 +268,38 @@ public class TestRunService {
             eventType = "UPDATE";
         } else {
             // CREATE STRATEGY: Standard new entry
-            savedRunId =  createNewTestRun(report, project);
+            savedRunId =  createNewTestRun(report, project, failureIds);
             eventType = "NEW_RUN";
         }
 
-        // --- Publish Real-time Event ---
         // We fetch the run to get the latest calculated status/counts
-        TestRun savedRun = testRunRepository.findById(savedRunId).orElse(null);
-
-        if (savedRun != null) {
-            TestRunEvent event = new TestRunEvent(
-                    savedRun.getId(),
-                    savedRun.getStatus(), // "Healthy" or "Unhealthy"
-                    project.getId(),
-                    project.getName(),
-                    savedRun.getTotalTests(),
-                    savedRun.getFailCount(),
-                    eventType
-            );
-
-            // Topic: /topic/project/{id}/runs
-            String destination = "/topic/project/" + project.getId() + "/runs";
-            messagingTemplate.convertAndSend(destination, event);
-
-            System.out.println("WebSocket Event sent to: " + destination);
-        }
-        // ----------------------------------
+        TestRun savedRun = testRunRepository.findById(savedRunId)
+                .orElseThrow(() -> new RuntimeException("Run not found: " + savedRunId));
+
+        // Cached dashboard responses for this project are dropped once this transaction commits
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(project.getId()));
+
+        return new TestRunEvent(
+                savedRun.getId(),
+                savedRun.getStatus(), // "Healthy" or "Unhealthy"
+                project.getId(),
+                project.getName(),
+                savedRun.getTotalTests(),
+                savedRun.getFailCount(),
+                eventType
+        );
+    }
 
-        return savedRunId;
+    // --- Publish Real-time Event ---
+    public void publishRunEvent(TestRunEvent event) {
+        // Topic: /topic/project/{id}/runs
+        String destination = "/topic/project/" + event.getProjectId() + "/runs";
+        messagingTemplate.convertAndSend(destination, event);
 
+        System.out.println("WebSocket Event sent to: " + destination);
     }
 
-    private Long createNewTestRun(TestReport report, Project project) {
+    private Long createNewTestRun(TestReport report, Project project, Map<String, Long> failureIds) {
         // Map POJO -> Entity
         TestRun run = new TestRun();
         run.setProject(project); // Set the project
@@ -145,21 +311,58 @@ public class TestRunService {
         run.setSkipCount(report.getSkipCount());
         run.setTotalDuration(report.getTotalDuration());
 
-        // Create a Lookup Map (ID -> Stack Trace)
+        // Create a Lookup Map (Report Ref ID -> TestFailure DB ID)
         // This turns the list [FailureDefinition(id="ERR_1", stackTrace="...")]
-        // into a Map {"ERR_1": "..."} for fast access.
-        Map<String, String> failureMap = report.getFailureCatalog().stream()
-                .collect(Collectors.toMap(FailureDefinition::getId, FailureDefinition::getStackTrace));
+        // into a Map {"ERR_1": 42} for fast access. All fingerprints are resolved in bulk.
+        Map<String, Long> failureMap = failureIds != null ? failureIds : resolveFailureIds(report.getFailureCatalog());
+
+        // Same for the tests themselves: (class, name) -> test_definitions id, resolved in bulk
+        List<TestKey> testKeys = new ArrayList<>(report.getTotalTests());
+        collectTestKeys(project.getId(), report.getPassedTests(), testKeys);
+        collectTestKeys(project.getId(), report.getFailedTests(), testKeys);
+        collectTestKeys(project.getId(), report.getSkippedTests(), testKeys);
+        Map<TestKey, Integer> definitionIds = testDefinitionService.resolveIds(project.getId(), testKeys);
 
         // Map Test Cases
         // Combine all lists (Pass, Fail, Skip) into one DB list
-        mapTestCases(run, report.getPassedTests(), "PASSED", Collections.emptyMap());
-        mapTestCases(run, report.getFailedTests(), "FAILED", failureMap);
-        mapTestCases(run, report.getSkippedTests(), "SKIPPED", Collections.emptyMap());
+        List<TestCase> testCases = new ArrayList<>(report.getTotalTests());
+        mapTestCases(run, report.getPassedTests(), "PASSED", Collections.emptyMap(), definitionIds, testCases);
+        mapTestCases(run, report.getFailedTests(), "FAILED", failureMap, definitionIds, testCases);
+        mapTestCases(run, report.getSkippedTests(), "SKIPPED", Collections.emptyMap(), definitionIds, testCases);
+
+        // Compact storage: failures stay rows (they link to a TestFailure), everything else goes into one block
+        List<TestCase> rows = testCases;
+        List<TestCase> compactResults = Collections.emptyList();
+        if (compactResultsEnabled) {
+            rows = new ArrayList<>();
+            compactResults = new ArrayList<>(testCases.size());
+            for (TestCase tc : testCases) {
+                ("FAILED".equals(tc.getStatus()) ? rows : compactResults).add(tc);
+            }
+        }
 
-        // Save to DB (Cascade will save all test cases too)
-        TestRun savedRun = testRunRepository.save(run);
-        System.out.println("Saved Run ID: " + savedRun.getId());
+        TestRun savedRun;
+        if (bulkInsertEnabled) {
+            // Save the run row first (we need its ID), then write all test cases in JDBC batches
+            savedRun = testRunRepository.save(run);
+            testCaseJdbcRepository.insertAll(savedRun.getId(), rows);
+        } else {
+            // Save to DB (Cascade will save all test cases too)
+            run.getTestCases().addAll(rows);
+            savedRun = testRunRepository.save(run);
+        }
+        runResultService.saveBlock(savedRun.getId(), compactResults);
+
+        // Keep the pre-aggregated daily stats in sync (same transaction)
+        rollupService.recordNewRun(savedRun, testCases);
+        testStatsService.recordNewRun(savedRun, testCases);
+        durationBaselineService.recordNewRun(savedRun, testCases);
+        failureSketchService.recordNewRun(savedRun, testCases);
+        failureCountService.recordNewRun(savedRun, testCases);
+        testHistoryService.recordRun(savedRun, testCases);
+        failureBitmapService.recordNewRun(savedRun, testCases);
+
+        System.out.println("Saved Run ID: " + savedRun.getId() + " (" + testCases.size() + " test cases)");
         return savedRun.getId();
     }
 
@@ -188,7 +391,8 @@ public class TestRunService {
                         (existing, replacement) -> existing // Keep first if duplicates occur
                 )));
 
-        int fixedCount = 0;
+        List<TestCase> fixedTests = new ArrayList<>();
+        List<Long> fixedFailureIds = new ArrayList<>();
 
         // 3. Iterate through DB failures and check against Rerun XML
         for (TestCase dbFailure : existingFailures) {
@@ -213,93 +417,165 @@ public class TestRunService {
             // 4. Apply Update
             if (shouldUpdateToPassed) {
                 dbFailure.setStatus("PASSED");
+                if (dbFailure.getTestFailure() != null) fixedFailureIds.add(dbFailure.getTestFailure().getId());
                 dbFailure.setTestFailure(null); // Clear the failure details
-                fixedCount++;
+                fixedTests.add(dbFailure);
             }
         }
 
         // 5. Update Run Totals if any tests were fixed
+        int fixedCount = fixedTests.size();
         if (fixedCount > 0) {
             existingRun.setPassCount(existingRun.getPassCount() + fixedCount);
             existingRun.setFailCount(Math.max(0, existingRun.getFailCount() - fixedCount));
             testRunRepository.save(existingRun);
+            rollupService.recordFixedFailures(existingRun, fixedCount);
+            testStatsService.recordFixedFailures(existingRun, fixedTests);
+            failureCountService.recordFixedFailures(existingRun, fixedFailureIds);
+            testHistoryService.recordRun(existingRun, fixedTests); // Re-recorded as PASSED for the same run
+            failureBitmapService.recordFixedTests(existingRun, fixedTests);
+            // Fixed tests no longer count as failing that day (sketches cannot remove elements: rebuild the day)
+            testRunRepository.flush();
+            failureSketchService.recomputeDay(existingRun.getProject().getId(), existingRun.getExecutionDate().toLocalDate());
             System.out.println("Merged Rerun: Fixed " + fixedCount + " failures for Run ID " + existingRun.getId());
         }
 
         return existingRun.getId();
     }
 
-    private void mapTestCases(TestRun run, List<TestCaseDetail> details, String status, Map<String, String> failureMap) {
+    private void collectTestKeys(Long projectId, List<TestCaseDetail> details, List<TestKey> target) {
+        if (details == null) return;
+        for (TestCaseDetail detail : details) {
+            target.add(TestKey.of(projectId, detail.getClassName(), detail.getTestName()));
+        }
+    }
+
+    private void mapTestCases(TestRun run, List<TestCaseDetail> details, String status, Map<String, Long> failureMap,
+                              Map<TestKey, Integer> definitionIds, List<TestCase> target) {
         if (details == null) return;
 
+        Long projectId = run.getProject().getId();
         for (TestCaseDetail detail : details) {
             TestCase testCase = new TestCase();
-            testCase.setTestName(detail.getTestName());
-            testCase.setClassName(detail.getClassName());
+            // Reference only (no SELECT): the definition was resolved just before
+            Integer definitionId = definitionIds.get(TestKey.of(projectId, detail.getClassName(), detail.getTestName()));
+            testCase.setTestDefinition(testDefinitionRepository.getReferenceById(definitionId));
             testCase.setDuration(detail.getDuration());
             testCase.setStatus(status);
 
-            // If this test failed, look up the stack trace using the Ref ID
+            // If this test failed, link it to the de-duplicated failure using the Ref ID
             if ("FAILED".equals(status) && detail.getFailureRefId() != null) {
-                String stackTrace = failureMap.get(detail.getFailureRefId());
-                if (stackTrace != null) {
-                    TestFailure failureEntity = getOrCreateFailure(stackTrace, detail.getFailureRefId()); // You might pass just stackTrace
-                    testCase.setTestFailure(failureEntity);
+                Long failureId = failureMap.get(detail.getFailureRefId());
+                if (failureId != null) {
+                    // Reference only (no SELECT): the row is already known to exist
+                    testCase.setTestFailure(testFailureRepository.getReferenceById(failureId));
                 }
             }
 
             testCase.setTestRun(run); // Link Child -> Parent
-            run.getTestCases().add(testCase); // Link Parent -> Child
+            target.add(testCase);
         }
     }
 
     /**
-     * Checks if this error exists in DB. If yes, returns it. If no, creates new.
+     * Resolves every failure of a report to its TestFailure id with as few round trips as possible:
+     * 1. In-process cache (recurring failures never reach the DB)
+     * 2. One bulk SELECT for the cache misses
+     * 3. One batched INSERT for the fingerprints that are genuinely new, then one SELECT to read their ids
      */
-    private TestFailure getOrCreateFailure(String stackTrace, String messageHelper) {
-        // 1. Generate Hash
-        String hash = generateHash(stackTrace);
-
-        // 2. Check DB Cache
-        Optional<TestFailure> existing = testFailureRepository.findByFailureHash(hash);
-        if (existing.isPresent()) {
-            return existing.get();
+    @Transactional
+    public Map<String, Long> resolveFailureIds(List<FailureDefinition> catalog) {
+        if (catalog.isEmpty()) return Collections.emptyMap();
+
+        // 1. Generate Hashes (Ref ID -> Hash) from the normalized traces. Several refs can share a hash.
+        Map<String, String> refToHash = new LinkedHashMap<>();
+        Map<String, String> hashToTrace = new LinkedHashMap<>();
+        for (FailureDefinition def : catalog) {
+            String hash = failureFingerprinter.fingerprint(def.getStackTrace());
+            refToHash.put(def.getId(), hash);
+            hashToTrace.putIfAbsent(hash, def.getStackTrace());
         }
 
-        // 3. Create New
-        TestFailure failure = new TestFailure();
-        failure.setFailureHash(hash);
-        failure.setStackTrace(stackTrace);
-        // We use the first line or a substring as the short message
-        failure.setMessage(stackTrace.length() > 100 ? stackTrace.substring(0, 100) : stackTrace);
+        // 2. Check in-process cache
+        Map<String, Long> hashToId = new HashMap<>(failureCache.getAll(hashToTrace.keySet()));
 
-        return testFailureRepository.save(failure);
-    }
+        // 3. Bulk lookup for the misses
+        Set<String> missing = new LinkedHashSet<>(hashToTrace.keySet());
+        missing.removeAll(hashToId.keySet());
+        if (!missing.isEmpty()) {
+            testFailureRepository.findAllByFailureHashIn(missing)
+                    .forEach(f -> hashToId.put(f.getFailureHash(), f.getId()));
+            missing.removeAll(hashToId.keySet());
+        }
 
-    private String generateHash(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encodedhash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder(2 * encodedhash.length);
-            for (byte b : encodedhash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
+        // 4. Create New (batched), then read the generated ids back
+        if (!missing.isEmpty()) {
+            List<TestFailure> newFailures = new ArrayList<>(missing.size());
+            for (String hash : missing) {
+                String stackTrace = hashToTrace.get(hash);
+                TestFailure failure = new TestFailure();
+                failure.setFailureHash(hash);
+                failure.setStackTrace(stackTrace);
+                // We use the first line or a substring as the short message
+                failure.setMessage(stackTrace.length() > 100 ? stackTrace.substring(0, 100) : stackTrace);
+                // Categorized once here, so the dashboard never re-classifies on read
+                failure.setCategory(failureClassifier.classify(failure.getMessage()));
+                failure.setFingerprintVersion(FailureFingerprinter.VERSION);
+                newFailures.add(failure);
+            }
+            testFailureJdbcRepository.insertIgnoringDuplicates(newFailures);
+            testFailureRepository.findAllByFailureHashIn(missing)
+                    .forEach(f -> hashToId.put(f.getFailureHash(), f.getId()));
+
+            // New failures join a near-duplicate cluster (or start one)
+            Map<Long, String> newIdToTrace = new HashMap<>();
+            for (String hash : missing) {
+                Long id = hashToId.get(hash);
+                if (id != null) newIdToTrace.put(id, hashToTrace.get(hash));
             }
-            return hexString.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Hashing failed", e);
+            failureClusterService.assignClusters(newIdToTrace);
         }
+
+        // 5. Remember the ids, but only once they are committed
+        rememberAfterCommit(hashToId);
+
+        Map<String, Long> refToId = new HashMap<>();
+        refToHash.forEach((ref, hash) -> refToId.put(ref, hashToId.get(hash)));
+        return refToId;
+    }
+
+    private void rememberAfterCommit(Map<String, Long> hashToId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            failureCache.putAll(hashToId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                failureCache.putAll(hashToId);
+            }
+        });
     }
 
     // Delete by ID
     @Transactional
     public void deleteRunById(Long id) {
-        if (testRunRepository.existsById(id)) {
-            testRunRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Test Run not found with ID: " + id);
-        }
+        TestRun run = testRunRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Test Run not found with ID: " + id));
+        Long projectId = run.getProject().getId();
+        LocalDate day = run.getExecutionDate().toLocalDate();
+
+        failureCountService.forgetRuns(projectId, day, List.of(id));
+        failureBitmapService.forgetRuns(List.of(id));
+        runResultService.deleteBlocks(List.of(id));
+        rollupService.forgetRuns(List.of(id));
+        testRunRepository.delete(run);
+        testRunRepository.flush(); // Rollup is rebuilt from what is left in the DB
+
+        rollupService.recomputeDay(projectId, day);
+        testStatsService.recomputeDay(projectId, day);
+        failureSketchService.recomputeDay(projectId, day);
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(projectId));
     }
 
     // NEW: Delete by Date (YYYY-MM-DD)
@@ -314,7 +590,18 @@ public class TestRunService {
             throw new RuntimeException("No Test Run found for date: " + date);
         }
 
+        List<Long> runIds = runs.stream().map(TestRun::getId).toList();
+        failureCountService.forgetRuns(projectId, date, runIds);
+        failureBitmapService.forgetRuns(runIds);
+        runResultService.deleteBlocks(runIds);
+        rollupService.forgetRuns(runIds);
         testRunRepository.deleteAll(runs);
+        testRunRepository.flush(); // Rollup is rebuilt from what is left in the DB
+
+        rollupService.recomputeDay(projectId, date);
+        testStatsService.recomputeDay(projectId, date);
+        failureSketchService.recomputeDay(projectId, date);
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(projectId));
     }
 
     public TestReport reconstructReportFromDb(TestRun run) {
@@ -0,0 +1,123 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.Project;
+import com.harshqa.qadashboardai.entity.TestCase;
+import com.harshqa.qadashboardai.entity.TestDailyStats;
+import com.harshqa.qadashboardai.entity.TestRun;
+import com.harshqa.qadashboardai.repository.ProjectRepository;
+import com.harshqa.qadashboardai.repository.TestDailyStatsJdbcRepository;
+import com.harshqa.qadashboardai.repository.TestDailyStatsRepository;
+import com.harshqa.qadashboardai.repository.TestRunRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps test_daily_stats (per-test executions / failures / flips per day) in sync with ingestion.
+ * Like RollupService, all methods join the caller's transaction.
+ */
+@Service
+@Transactional
+public class TestStatsService {
+
+    private final TestDailyStatsRepository statsRepository;
+    private final TestDailyStatsJdbcRepository statsJdbcRepository;
+    private final ProjectRepository projectRepository;
+    private final TestRunRepository testRunRepository;
+    private final RunResultService runResultService;
+
+    public TestStatsService(TestDailyStatsRepository statsRepository, TestDailyStatsJdbcRepository statsJdbcRepository,
+                            ProjectRepository projectRepository, TestRunRepository testRunRepository,
+                            RunResultService runResultService) {
+        this.statsRepository = statsRepository;
+        this.statsJdbcRepository = statsJdbcRepository;
+        this.projectRepository = projectRepository;
+        this.testRunRepository = testRunRepository;
+        this.runResultService = runResultService;
+    }
+
+    // New run -> one upsert per test (duplicates inside the run are folded in report order)
+    public void recordNewRun(TestRun run, List<TestCase> testCases) {
+        Map<Integer, TestDailyStats> byTest = new LinkedHashMap<>();
+        for (TestCase tc : testCases) {
+            if (!"PASSED".equals(tc.getStatus()) && !"FAILED".equals(tc.getStatus())) continue;
+            addExecution(byTest, run, tc, tc.getStatus());
+        }
+        statsJdbcRepository.upsertAll(byTest.values());
+    }
+
+    /**
+     * Rerun merge -> each fixed test gets one more (passing) execution.
+     * The upsert counts the FAILED -> PASSED transition, so the day keeps the evidence that the
+     * test needed a rerun (test_cases only keeps the final status).
+     */
+    public void recordFixedFailures(TestRun run, List<TestCase> fixedTests) {
+        Map<Integer, TestDailyStats> byTest = new LinkedHashMap<>();
+        for (TestCase tc : fixedTests) {
+            addExecution(byTest, run, tc, "PASSED");
+        }
+        statsJdbcRepository.upsertAll(byTest.values());
+    }
+
+    /**
+     * After deleting runs: rebuild the day from the remaining runs, replayed in execution order.
+     * Done in Java because passed/skipped results may be in compact blocks, which SQL cannot read.
+     * The caller must flush pending deletes first.
+     */
+    public void recomputeDay(Long projectId, LocalDate day) {
+        statsRepository.deleteDay(projectId, day);
+
+        Project project = projectRepository.getReferenceById(projectId);
+        List<TestRun> runs = new ArrayList<>(testRunRepository.findAllByProjectAndExecutionDateBetween(
+                project, day.atStartOfDay(), day.atTime(LocalTime.MAX)));
+        runs.sort(Comparator.comparing(TestRun::getExecutionDate).thenComparing(TestRun::getId));
+
+        runResultService.attachCompactResults(runs);
+        for (TestRun run : runs) {
+            recordNewRun(run, run.getAllTestCases());
+        }
+    }
+
+    // One-off backfill for days ingested before test_daily_stats existed (those runs are stored as rows only)
+    public void backfillMissing() {
+        LocalDateTime from = LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.now().plusYears(100);
+        for (Project project : projectRepository.findAll()) {
+            int created = statsRepository.rebuildMissing(project.getId(), from, to);
+            if (created > 0) {
+                System.out.println("Backfilled " + created + " test stats rows for Project " + project.getName());
+            }
+        }
+    }
+
+    private void addExecution(Map<Integer, TestDailyStats> byTest, TestRun run, TestCase tc, String status) {
+        // getId() on a lazy reference does not hit the DB
+        Integer definitionId = tc.getTestDefinition().getId();
+
+        TestDailyStats stats = byTest.computeIfAbsent(definitionId, k -> {
+            TestDailyStats s = new TestDailyStats();
+            s.setProjectId(run.getProject().getId());
+            s.setDay(run.getExecutionDate().toLocalDate());
+            s.setTestDefinitionId(definitionId);
+            s.setFirstStatus(status);
+            return s;
+        });
+
+        if (stats.getLastStatus() != null && !stats.getLastStatus().equals(status)) {
+            stats.setFlips(stats.getFlips() + 1);
+        }
+        stats.setExecutions(stats.getExecutions() + 1);
+        if ("FAILED".equals(status)) {
+            stats.setFailures(stats.getFailures() + 1);
+        }
+        stats.setLastStatus(status);
+    }
+}
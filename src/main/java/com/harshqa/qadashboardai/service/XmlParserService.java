@@ -3,14 +3,17 @@ package com.harshqa.qadashboardai.service;
 import com.harshqa.qadashboardai.model.FailureDefinition;
 import com.harshqa.qadashboardai.model.TestCaseDetail;
 import com.harshqa.qadashboardai.model.TestReport;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -20,15 +23,154 @@ import java.util.Map;
 @Service
 public class XmlParserService {
 
+    // Max characters of a stack trace we keep (anything longer is cut off)
+    private static final int MAX_TRACE_LENGTH = 1000;
+    static final String TRUNCATION_SUFFIX = "\n... [Truncated by QA Dashboard]";
+
+    public enum ParserMode {
+        STAX, // Streaming pull parser: one forward pass, bounded memory (default)
+        DOM   // Legacy: loads the whole document tree. Kept as fallback / for comparison.
+    }
+
+    private final ParserMode defaultMode;
+
+    // The factory is thread-safe once configured, so we build it once and share it.
+    private final XMLInputFactory xmlInputFactory;
+
+    public XmlParserService(@Value("${qa.ingest.parser-mode:STAX}") ParserMode defaultMode) {
+        this.defaultMode = defaultMode;
+        this.xmlInputFactory = XMLInputFactory.newInstance();
+        // Reports come from CI uploads, so never resolve DTDs or external entities
+        this.xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
     public TestReport parse(InputStream xmlInputStream) throws Exception {
+        return parse(xmlInputStream, defaultMode);
+    }
+
+    public TestReport parse(InputStream xmlInputStream, ParserMode mode) throws Exception {
+        return mode == ParserMode.DOM ? parseDom(xmlInputStream) : parseStreaming(xmlInputStream);
+    }
+
+    /**
+     * Streaming parser (StAX).
+     * Walks the XML once, front to back. Only the current <testcase> is held in memory,
+     * and failure text is capped while reading, so heap usage does not grow with the file size.
+     */
+    private TestReport parseStreaming(InputStream xmlInputStream) throws Exception {
         TestReport report = new TestReport();
+        ReportCollector collector = new ReportCollector(report);
+
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(xmlInputStream);
+        try {
+            boolean suiteSeen = false;
+
+            // State of the <testcase> we are currently inside (null = not inside one)
+            String name = null;
+            String className = null;
+            double duration = 0.0;
+            boolean isSkipped = false;
+
+            // First <failure> and first <error> of the current testcase (same as DOM's item(0))
+            String failureMessage = null;
+            TraceBuffer failureTrace = null;
+            String errorMessage = null;
+            TraceBuffer errorTrace = null;
+
+            // Where character data should go right now (null = ignore)
+            TraceBuffer activeTrace = null;
+            int activeDepth = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if (activeTrace != null) {
+                            // Nested markup inside <failure>: its text still belongs to the trace
+                            activeDepth++;
+                            continue;
+                        }
+                        String tag = reader.getLocalName();
+
+                        if (!suiteSeen && "testsuite".equals(tag)) {
+                            // 1. Process Metadata (High Level Stats) from the first suite
+                            suiteSeen = true;
+                            report.setTotalDuration(Double.parseDouble(getAttribute(reader, "time", "0.0")));
+                            report.setTimestamp(parseTimestamp(reader.getAttributeValue(null, "timestamp")));
+                        } else if ("testcase".equals(tag)) {
+                            name = getAttribute(reader, "name", "");
+                            className = getAttribute(reader, "classname", "");
+                            duration = Double.parseDouble(getAttribute(reader, "time", "0.0"));
+                            isSkipped = false;
+                            failureMessage = null;
+                            failureTrace = null;
+                            errorMessage = null;
+                            errorTrace = null;
+                        } else if (name != null) {
+                            if ("failure".equals(tag) && failureTrace == null) {
+                                failureMessage = getAttribute(reader, "message", "");
+                                failureTrace = new TraceBuffer();
+                                activeTrace = failureTrace;
+                                activeDepth = 1;
+                            } else if ("error".equals(tag) && errorTrace == null) {
+                                errorMessage = getAttribute(reader, "message", "");
+                                errorTrace = new TraceBuffer();
+                                activeTrace = errorTrace;
+                                activeDepth = 1;
+                            } else if ("skipped".equals(tag)) {
+                                isSkipped = true;
+                            }
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                        if (activeTrace != null) {
+                            activeTrace.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (activeTrace != null) {
+                            if (--activeDepth == 0) {
+                                activeTrace = null;
+                            }
+                            continue;
+                        }
+                        if (name != null && "testcase".equals(reader.getLocalName())) {
+                            // 2. Testcase is complete -> classify it (failure wins over error, like the DOM path)
+                            if (failureTrace != null) {
+                                collector.addFailed(name, className, duration, failureMessage, failureTrace.toTrace());
+                            } else if (errorTrace != null) {
+                                collector.addFailed(name, className, duration, errorMessage, errorTrace.toTrace());
+                            } else if (isSkipped) {
+                                collector.addSkipped(name, className, duration);
+                            } else {
+                                collector.addPassed(name, className, duration);
+                            }
+                            name = null;
+                        }
+                    }
+                    default -> {
+                        // Comments, processing instructions etc. are not interesting
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
 
-        // Maps unique stack trace content -> to our generated ID (e.g., "ERR_1")
-        // We use this to check if we've seen an error before.
-        Map<String, String> stackTraceToIdMap = new HashMap<>();
+        collector.finish();
+        return report;
+    }
 
-        // Helper map to quickly find the Definition object to increment count
-        Map<String, FailureDefinition> idToDefinitionMap = new HashMap<>();
+    /**
+     * Legacy DOM parser.
+     * Loads the full document into memory. Kept as a fallback mode (qa.ingest.parser-mode=DOM)
+     * so results can be compared with the streaming parser.
+     */
+    private TestReport parseDom(InputStream xmlInputStream) throws Exception {
+        TestReport report = new TestReport();
+        ReportCollector collector = new ReportCollector(report);
 
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         DocumentBuilder builder = factory.newDocumentBuilder();
@@ -39,35 +181,11 @@ public class XmlParserService {
         Element suiteElement = (Element) doc.getElementsByTagName("testsuite").item(0);
         if (suiteElement != null) {
             report.setTotalDuration(Double.parseDouble(getAttribute(suiteElement, "time", "0.0")));
-
-            String timestampStr = suiteElement.getAttribute("timestamp");
-            if (timestampStr != null && !timestampStr.isEmpty()) {
-                try {
-                    // Step 1: Parse as OffsetDateTime to handle the "+05:30"
-                    OffsetDateTime odt = OffsetDateTime.parse(timestampStr);
-
-                    // Step 2: Convert to LocalDateTime (This keeps "11:24:30")
-                    report.setTimestamp(odt.toLocalDateTime());
-
-                } catch (Exception e) {
-                    // Fallback: If standard offset parsing fails, try simple Local parsing
-                    // or just default to NOW.
-                    try {
-                        report.setTimestamp(LocalDateTime.parse(timestampStr));
-                    } catch (Exception ex) {
-                        System.err.println("Warning: Could not parse timestamp '" + timestampStr + "'. Using current time.");
-                        report.setTimestamp(LocalDateTime.now());
-                    }
-                }
-            } else {
-                report.setTimestamp(LocalDateTime.now());
-            }
-
+            report.setTimestamp(parseTimestamp(suiteElement.getAttribute("timestamp")));
         }
 
         // 2. Iterate ALL test cases
         NodeList testCases = doc.getElementsByTagName("testcase");
-        int errorCounter = 1; // Used to generate IDs like ERR_1, ERR_2
 
         for (int i = 0; i < testCases.getLength(); i++) {
             Element testElement = (Element) testCases.item(i);
@@ -94,83 +212,178 @@ public class XmlParserService {
 
                 // --- SAFETY TRUNCATION ---
                 // If trace is huge, cut it off. 1000 chars is usually enough for the Root Cause.
-                if (rawTrace.length() > 1000) {
-                    rawTrace = rawTrace.substring(0, 1000) + "\n... [Truncated by QA Dashboard]";
-                }
-
-                // --- DEDUPLICATION LOGIC ---
-                // We use the stack trace as the "Key" to identify uniqueness.
-                String uniqueKey = rawTrace;
-                if (uniqueKey.isEmpty()) uniqueKey = rawMessage; // Fallback if trace is empty
-
-                String failureId;
-
-                if (stackTraceToIdMap.containsKey(uniqueKey)) {
-                    // Case A: We have seen this error before!
-                    failureId = stackTraceToIdMap.get(uniqueKey);
-
-                    // Increment the counter for this existing error
-                    FailureDefinition def = idToDefinitionMap.get(failureId);
-                    def.setOccurrenceCount(def.getOccurrenceCount() + 1);
-                } else {
-                    // Case B: This is a NEW unique error!
-                    failureId = "ERR_" + errorCounter++;
-                    stackTraceToIdMap.put(uniqueKey, failureId);
-
-                    FailureDefinition newDef = FailureDefinition.builder()
-                            .id(failureId)
-                            .message(rawMessage)
-                            .stackTrace(rawTrace) // We capture the heavy text ONCE
-                            .occurrenceCount(1)
-                            .build();
-
-                    report.getFailureCatalog().add(newDef);
-                    idToDefinitionMap.put(failureId, newDef);
+                if (rawTrace.length() > MAX_TRACE_LENGTH) {
+                    rawTrace = rawTrace.substring(0, MAX_TRACE_LENGTH) + TRUNCATION_SUFFIX;
                 }
 
-                // Add to Failed List
-                report.getFailedTests().add(TestCaseDetail.builder()
-                        .testName(name)
-                        .className(className)
-                        .duration(duration)
-                        .status("FAILED")
-                        .failureRefId(failureId) // LINKING HAPPENS HERE
-                        .build());
-
+                collector.addFailed(name, className, duration, rawMessage, rawTrace);
             } else if (isSkipped) {
-                // Add to Passed list (or separate Skipped list if you prefer)
-                // For now, adding to Passed but marking status SKIPPED per requirements logic
-                report.getSkippedTests().add(TestCaseDetail.builder()
-                        .testName(name)
-                        .className(className)
-                        .duration(duration)
-                        .status("SKIPPED")
-                        .build());
+                collector.addSkipped(name, className, duration);
             } else {
-                // Happy Path
-                report.getPassedTests().add(TestCaseDetail.builder()
-                        .testName(name)
-                        .className(className)
-                        .duration(duration)
-                        .status("PASSED")
-                        .build());
+                collector.addPassed(name, className, duration);
             }
         }
 
-        // Final Calculations (Truth based on parsing)
-        report.setPassCount(report.getPassedTests().size());
-        report.setFailCount(report.getFailedTests().size()); // Includes both Errors & Failures
-        report.setSkipCount(report.getSkippedTests().size());
-        report.setTotalTests(report.getPassCount() + report.getFailCount() + report.getSkipCount());
-
-
+        collector.finish();
         return report;
     }
 
+    private LocalDateTime parseTimestamp(String timestampStr) {
+        if (timestampStr == null || timestampStr.isEmpty()) {
+            return LocalDateTime.now();
+        }
+        try {
+            // Step 1: Parse as OffsetDateTime to handle the "+05:30"
+            OffsetDateTime odt = OffsetDateTime.parse(timestampStr);
+
+            // Step 2: Convert to LocalDateTime (This keeps "11:24:30")
+            return odt.toLocalDateTime();
+
+        } catch (Exception e) {
+            // Fallback: If standard offset parsing fails, try simple Local parsing
+            // or just default to NOW.
+            try {
+                return LocalDateTime.parse(timestampStr);
+            } catch (Exception ex) {
+                System.err.println("Warning: Could not parse timestamp '" + timestampStr + "'. Using current time.");
+                return LocalDateTime.now();
+            }
+        }
+    }
+
     // Helper to safely get attributes without null pointer exceptions
     private String getAttribute(Element e, String attr, String defaultVal) {
         String val = e.getAttribute(attr);
         return (val == null || val.isEmpty()) ? defaultVal : val;
     }
 
+    private String getAttribute(XMLStreamReader reader, String attr, String defaultVal) {
+        String val = reader.getAttributeValue(null, attr);
+        return (val == null || val.isEmpty()) ? defaultVal : val;
+    }
+
+    /**
+     * Shared by both parsing modes: builds the pass/fail/skip lists and the
+     * de-duplicated failure catalog, so STAX and DOM produce identical reports.
+     */
+    private static class ReportCollector {
+
+        private final TestReport report;
+
+        // Maps unique stack trace content -> to our generated ID (e.g., "ERR_1")
+        // We use this to check if we've seen an error before.
+        private final Map<String, String> stackTraceToIdMap = new HashMap<>();
+
+        // Helper map to quickly find the Definition object to increment count
+        private final Map<String, FailureDefinition> idToDefinitionMap = new HashMap<>();
+
+        private int errorCounter = 1; // Used to generate IDs like ERR_1, ERR_2
+
+        ReportCollector(TestReport report) {
+            this.report = report;
+        }
+
+        void addFailed(String name, String className, double duration, String rawMessage, String rawTrace) {
+            // --- DEDUPLICATION LOGIC ---
+            // We use the stack trace as the "Key" to identify uniqueness.
+            String uniqueKey = rawTrace;
+            if (uniqueKey.isEmpty()) uniqueKey = rawMessage; // Fallback if trace is empty
+
+            String failureId = stackTraceToIdMap.get(uniqueKey);
+
+            if (failureId != null) {
+                // Case A: We have seen this error before! Increment its counter.
+                FailureDefinition def = idToDefinitionMap.get(failureId);
+                def.setOccurrenceCount(def.getOccurrenceCount() + 1);
+            } else {
+                // Case B: This is a NEW unique error!
+                failureId = "ERR_" + errorCounter++;
+                stackTraceToIdMap.put(uniqueKey, failureId);
+
+                FailureDefinition newDef = FailureDefinition.builder()
+                        .id(failureId)
+                        .message(rawMessage)
+                        .stackTrace(rawTrace) // We capture the heavy text ONCE
+                        .occurrenceCount(1)
+                        .build();
+
+                report.getFailureCatalog().add(newDef);
+                idToDefinitionMap.put(failureId, newDef);
+            }
+
+            // Add to Failed List
+            report.getFailedTests().add(TestCaseDetail.builder()
+                    .testName(name)
+                    .className(className)
+                    .duration(duration)
+                    .status("FAILED")
+                    .failureRefId(failureId) // LINKING HAPPENS HERE
+                    .build());
+        }
+
+        void addSkipped(String name, String className, double duration) {
+            report.getSkippedTests().add(TestCaseDetail.builder()
+                    .testName(name)
+                    .className(className)
+                    .duration(duration)
+                    .status("SKIPPED")
+                    .build());
+        }
+
+        void addPassed(String name, String className, double duration) {
+            // Happy Path
+            report.getPassedTests().add(TestCaseDetail.builder()
+                    .testName(name)
+                    .className(className)
+                    .duration(duration)
+                    .status("PASSED")
+                    .build());
+        }
+
+        void finish() {
+            // Final Calculations (Truth based on parsing)
+            report.setPassCount(report.getPassedTests().size());
+            report.setFailCount(report.getFailedTests().size()); // Includes both Errors & Failures
+            report.setSkipCount(report.getSkippedTests().size());
+            report.setTotalTests(report.getPassCount() + report.getFailCount() + report.getSkipCount());
+        }
+    }
+
+    /**
+     * Collects failure text while streaming, but never keeps more than MAX_TRACE_LENGTH + 1 chars.
+     * Produces exactly what the DOM path produces with getTextContent().trim() + truncation.
+     */
+    private static class TraceBuffer {
+
+        private final StringBuilder text = new StringBuilder();
+        private boolean leadingSkipped; // true once we hit the first non-whitespace char
+        private boolean overflow;       // true if non-whitespace text was dropped beyond the cap
+
+        void append(char[] chars, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                char c = chars[i];
+                if (!leadingSkipped) {
+                    if (c <= ' ') continue; // Same rule as String.trim()
+                    leadingSkipped = true;
+                }
+                if (text.length() <= MAX_TRACE_LENGTH) {
+                    text.append(c);
+                } else if (c > ' ') {
+                    overflow = true;
+                    return;
+                }
+            }
+        }
+
+        String toTrace() {
+            // Trailing trim
+            int end = text.length();
+            while (end > 0 && text.charAt(end - 1) <= ' ') end--;
+
+            if (overflow || end > MAX_TRACE_LENGTH) {
+                return text.substring(0, MAX_TRACE_LENGTH) + TRUNCATION_SUFFIX;
+            }
+            return text.substring(0, end);
+        }
+    }
 }
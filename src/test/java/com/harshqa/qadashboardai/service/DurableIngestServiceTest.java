@@ -0,0 +1,146 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.entity.IngestJobRecord;
+import com.harshqa.qadashboardai.entity.Project;
+import com.harshqa.qadashboardai.repository.IngestJobPayloadJdbcRepository;
+import com.harshqa.qadashboardai.repository.IngestJobRepository;
+import com.harshqa.qadashboardai.repository.ProjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Durable queue against a real PostgreSQL (claims rely on FOR UPDATE SKIP LOCKED).
+ * Two service instances with their own node id play two app nodes; the context's own worker is off,
+ * and claim() / process() are called directly instead of through the scheduler.
+ */
+@SpringBootTest(properties = {
+        "langchain4j.google-ai-gemini.chat-model.api-key=test",
+        "qa.ingest.durable.worker-enabled=false"
+})
+@Testcontainers
+class DurableIngestServiceTest {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private static final String REPORT = """
+            <testsuite name="Login" tests="1" timestamp="2024-01-05T10:11:12Z">
+              <testcase classname="com.app.LoginTest" name="opensLoginPage" time="0.5"/>
+            </testsuite>
+            """;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired private IngestJobRepository ingestJobRepository;
+    @Autowired private IngestJobPayloadJdbcRepository payloadRepository;
+    @Autowired private XmlParserService xmlParserService;
+    @Autowired private TestRunService testRunService;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void nodeThatLostItsLeaseDoesNotSaveTheReport() {
+        Long projectId = newProject();
+        DurableIngestService nodeA = node(0); // Lease expires right away, as if node A stalled
+        DurableIngestService nodeB = node(300);
+
+        Long jobId = nodeA.enqueue(upload(REPORT), projectId).getId();
+        IngestJobRecord claimedByA = claimed(nodeA, jobId);
+        IngestJobRecord claimedByB = claimed(nodeB, jobId);
+        assertEquals(2, claimedByB.getAttempts());
+
+        // A finishes late: its save is rolled back, the job stays with B
+        nodeA.process(claimedByA);
+        assertEquals(0, runCount(projectId));
+        assertEquals("RUNNING", job(jobId).getStatus());
+
+        nodeB.process(claimedByB);
+        IngestJobRecord completed = job(jobId);
+        assertEquals("COMPLETED", completed.getStatus());
+        assertNotNull(completed.getRunId());
+        assertEquals(1, runCount(projectId));
+        assertTrue(payloadRepository.findReport(jobId).isEmpty());
+    }
+
+    @Test
+    void brokenReportIsRetriedThenFailed() {
+        Long projectId = newProject();
+        DurableIngestService node = node(300);
+
+        Long jobId = node.enqueue(upload("<testsuite><testcase"), projectId).getId();
+
+        node.process(claimed(node, jobId));
+        IngestJobRecord retried = job(jobId);
+        assertEquals("QUEUED", retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertTrue(payloadRepository.findReport(jobId).isPresent());
+
+        node.process(claimed(node, jobId));
+        IngestJobRecord failed = job(jobId);
+        assertEquals("FAILED", failed.getStatus());
+        assertEquals(MAX_ATTEMPTS, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        assertTrue(payloadRepository.findReport(jobId).isEmpty());
+        assertTrue(node.claim(100).stream().noneMatch(j -> j.getId().equals(jobId)));
+    }
+
+    @Test
+    void runningJobIsNotClaimedWhileItsLeaseIsValid() {
+        Long projectId = newProject();
+        DurableIngestService nodeA = node(300);
+        DurableIngestService nodeB = node(300);
+
+        Long jobId = nodeA.enqueue(upload(REPORT), projectId).getId();
+        IngestJobRecord claimedByA = claimed(nodeA, jobId);
+        assertTrue(nodeB.claim(100).stream().noneMatch(j -> j.getId().equals(jobId)));
+
+        nodeA.process(claimedByA);
+        assertEquals("COMPLETED", job(jobId).getStatus());
+        assertEquals(1, runCount(projectId));
+    }
+
+    private DurableIngestService node(long leaseSeconds) {
+        return new DurableIngestService(ingestJobRepository, payloadRepository, xmlParserService, testRunService,
+                transactionTemplate, true, 1, MAX_ATTEMPTS, leaseSeconds);
+    }
+
+    private IngestJobRecord claimed(DurableIngestService node, Long jobId) {
+        return node.claim(100).stream()
+                .filter(j -> j.getId().equals(jobId))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Job " + jobId + " was not claimed"));
+    }
+
+    private IngestJobRecord job(Long jobId) {
+        return ingestJobRepository.findById(jobId).orElseThrow();
+    }
+
+    private Long newProject() {
+        return projectRepository.save(new Project("durable-" + UUID.randomUUID(), null)).getId();
+    }
+
+    private long runCount(Long projectId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM test_runs WHERE project_id = ?", Long.class, projectId);
+    }
+
+    private static MockMultipartFile upload(String xml) {
+        return new MockMultipartFile("files", "report.xml", "application/xml", xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
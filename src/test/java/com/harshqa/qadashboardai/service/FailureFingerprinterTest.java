@@ -0,0 +1,72 @@
+package com.harshqa.qadashboardai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The fingerprint decides which failures FailureFingerprintMigration merges (and deletes for good),
+ * so volatile tokens must be normalized and everything that names code must not.
+ */
+class FailureFingerprinterTest {
+
+    private final FailureFingerprinter fingerprinter = new FailureFingerprinter(10, List.of("java.lang.reflect."));
+
+    @Test
+    void normalizesLineNumbersAndSyntheticSuffixes() {
+        String trace = "java.lang.AssertionError: expected 5 but was 3\n" +
+                "\tat com.app.Step1Page.lambda$click$0(Step1Page.java:42)\n" +
+                "\tat com.sun.proxy.$Proxy12.click(Unknown Source)\n" +
+                "\tat com.app.Foo$$Lambda$14/0x0000000800c0b000.run(Unknown Source)\n";
+
+        assertEquals("java.lang.AssertionError: expected # but was #\n" +
+                        "at com.app.Step1Page.lambda$click$#(Step1Page.java:#)\n" +
+                        "at com.sun.proxy.$Proxy#.click(Unknown Source)\n" +
+                        "at com.app.Foo$$Lambda$#/#.run(Unknown Source)\n",
+                fingerprinter.normalizedText(trace));
+    }
+
+    @Test
+    void sameFailureOnDifferentLinesAndObjects() {
+        String a = "java.lang.IllegalStateException: Session@1b2c3d closed, id 550e8400-e29b-41d4-a716-446655440000\n" +
+                "\tat com.app.Client.send(Client.java:10)\n";
+        String b = "java.lang.IllegalStateException: Session@9f8e7a closed, id 123e4567-e89b-12d3-a456-426614174000\n" +
+                "\tat com.app.Client.send(Client.java:12)\n";
+
+        assertEquals(fingerprinter.fingerprint(a), fingerprinter.fingerprint(b));
+    }
+
+    @Test
+    void keepsDigitsThatArePartOfNames() {
+        String step1 = "java.lang.AssertionError\n\tat com.app.Step1Page.click(Step1Page.java:20)\n";
+        String step2 = "java.lang.AssertionError\n\tat com.app.Step2Page.click(Step2Page.java:20)\n";
+        String test1 = "java.lang.AssertionError\n\tat com.app.LoginTest.test1(LoginTest.java:20)\n";
+        String test2 = "java.lang.AssertionError\n\tat com.app.LoginTest.test2(LoginTest.java:20)\n";
+
+        assertNotEquals(fingerprinter.fingerprint(step1), fingerprinter.fingerprint(step2));
+        assertNotEquals(fingerprinter.fingerprint(test1), fingerprinter.fingerprint(test2));
+        assertEquals("at com.app.OrderV2Service.place(OrderV2Service.java:#)\n",
+                fingerprinter.normalizedText("\tat com.app.OrderV2Service.place(OrderV2Service.java:7)"));
+    }
+
+    @Test
+    void normalizesTimestamps() {
+        assertEquals("java.lang.IllegalStateException: token expired at # (now #)\n",
+                fingerprinter.normalizedText("java.lang.IllegalStateException: token expired at 2024-01-05T10:11:12.345Z (now 2024-01-05T23:59:01+01:00)"));
+        assertEquals("java.lang.AssertionError: no order since #, last seen #\n",
+                fingerprinter.normalizedText("java.lang.AssertionError: no order since 2024-01-05 08:00:00, last seen 2024-01-04"));
+
+        String morning = "java.lang.AssertionError: slot 2024-01-05T10:11:12Z is taken\n\tat com.app.Booking.book(Booking.java:10)\n";
+        String evening = "java.lang.AssertionError: slot 2024-03-09T23:01:02.5+0100 is taken\n\tat com.app.Booking.book(Booking.java:10)\n";
+        assertEquals(fingerprinter.fingerprint(morning), fingerprinter.fingerprint(evening));
+    }
+
+    @Test
+    void hashCodeRuleNeedsAWholeHexWord() {
+        assertEquals("java.lang.IllegalArgumentException: unknown user user@example.com in Session@#\n",
+                fingerprinter.normalizedText("java.lang.IllegalArgumentException: unknown user user@example.com in Session@1b2c3d"));
+    }
+}
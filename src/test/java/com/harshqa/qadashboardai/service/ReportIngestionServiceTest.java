@@ -0,0 +1,104 @@
+package com.harshqa.qadashboardai.service;
+
+import com.harshqa.qadashboardai.dto.UploadResultDto;
+import com.harshqa.qadashboardai.model.TestReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parallel upload: parses run ahead of the in-order save loop, but never by more than maxConcurrency files.
+ */
+class ReportIngestionServiceTest {
+
+    private static final int MAX_CONCURRENCY = 3;
+    private static final int FILES = 10;
+
+    @Test
+    void moreFilesThanPermitsWithSlowFirstFileDoesNotHang() throws Exception {
+        XmlParserService parser = mock(XmlParserService.class);
+        TestRunService testRunService = mock(TestRunService.class);
+
+        AtomicInteger parsing = new AtomicInteger();
+        AtomicInteger maxParsing = new AtomicInteger();
+        when(parser.parse(any(InputStream.class))).thenAnswer(invocation -> {
+            int index = ((InputStream) invocation.getArgument(0)).read();
+            maxParsing.accumulateAndGet(parsing.incrementAndGet(), Math::max);
+            try {
+                // Uneven parse times: the earlier the file, the slower its parse
+                Thread.sleep((FILES - index) * 20L);
+            } finally {
+                parsing.decrementAndGet();
+            }
+            TestReport report = new TestReport();
+            report.setTotalTests(index);
+            return report;
+        });
+
+        List<Integer> savedOrder = new CopyOnWriteArrayList<>();
+        when(testRunService.saveTestRun(any(TestReport.class), eq(1L))).thenAnswer(invocation -> {
+            int index = ((TestReport) invocation.getArgument(0)).getTotalTests();
+            savedOrder.add(index);
+            return (long) index + 100;
+        });
+
+        MultipartFile[] files = new MultipartFile[FILES];
+        for (int i = 0; i < FILES; i++) {
+            files[i] = new MockMultipartFile("files", "report-" + i + ".xml", "application/xml", new byte[]{(byte) i});
+        }
+
+        ReportIngestionService service = new ReportIngestionService(parser, testRunService, MAX_CONCURRENCY);
+        List<UploadResultDto> results = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> service.ingestConcurrently(files, 1L));
+
+        assertEquals(FILES, results.size());
+        for (int i = 0; i < FILES; i++) {
+            assertEquals("report-" + i + ".xml", results.get(i).getFileName());
+            assertEquals("SAVED", results.get(i).getStatus());
+            assertEquals(i + 100L, results.get(i).getRunId());
+            assertEquals(i, savedOrder.get(i));
+        }
+        assertTrue(maxParsing.get() <= MAX_CONCURRENCY, "parsed " + maxParsing.get() + " files at once");
+    }
+
+    @Test
+    void failedParseDoesNotStopTheBatch() throws Exception {
+        XmlParserService parser = mock(XmlParserService.class);
+        TestRunService testRunService = mock(TestRunService.class);
+
+        when(parser.parse(any(InputStream.class))).thenAnswer(invocation -> {
+            int index = ((InputStream) invocation.getArgument(0)).read();
+            if (index % 2 == 0) throw new IllegalArgumentException("Broken XML " + index);
+            return new TestReport();
+        });
+        when(testRunService.saveTestRun(any(TestReport.class), eq(1L))).thenReturn(7L);
+
+        MultipartFile[] files = new MultipartFile[FILES];
+        for (int i = 0; i < FILES; i++) {
+            files[i] = new MockMultipartFile("files", "report-" + i + ".xml", "application/xml", new byte[]{(byte) i});
+        }
+
+        ReportIngestionService service = new ReportIngestionService(parser, testRunService, MAX_CONCURRENCY);
+        List<UploadResultDto> results = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> service.ingestConcurrently(files, 1L));
+
+        assertEquals(FILES, results.size());
+        for (int i = 0; i < FILES; i++) {
+            assertEquals(i % 2 == 0 ? "FAILED" : "SAVED", results.get(i).getStatus());
+        }
+    }
+}